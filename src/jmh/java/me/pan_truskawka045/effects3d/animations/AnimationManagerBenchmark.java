@@ -0,0 +1,82 @@
+package me.pan_truskawka045.effects3d.animations;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link AnimationManager#tick()} and {@link AnimationManager#tick(int)} over looped animations with mixed frame types
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnimationManagerBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int animations;
+
+    @Param({"false", "true"})
+    private boolean timingWheel;
+
+    private AnimationManager manager;
+    private float sink;
+
+    @Setup
+    public void setUp() {
+        manager = new AnimationManager().timingWheel(timingWheel);
+        for (int i = 0; i < animations; i++) {
+            Animation animation = manager.newAnimation();
+            switch (i % 4) {
+                case 0:
+                    animation.then(() -> sink++).sleep(20);
+                    break;
+                case 1:
+                    animation.repeat(5, 3, () -> sink++);
+                    break;
+                case 2:
+                    animation.easeFunction(0, 10, EaseFunctions.SINE_IN, 20, 1, value -> sink += value);
+                    break;
+                default:
+                    animation.repeat(10, () -> sink++).sleep(5);
+                    break;
+            }
+            animation.looped();
+        }
+        manager.tick();
+    }
+
+    @TearDown
+    public void tearDown() {
+        manager.dispose();
+    }
+
+    @Benchmark
+    public float tick() {
+        manager.tick();
+        return sink;
+    }
+
+    /**
+     * Catching up after a lag of 20 ticks
+     */
+    @Benchmark
+    public float catchUp() {
+        manager.tick(20);
+        return sink;
+    }
+
+}
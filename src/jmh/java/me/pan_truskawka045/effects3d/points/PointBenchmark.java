@@ -0,0 +1,49 @@
+package me.pan_truskawka045.effects3d.points;
+
+import me.pan_truskawka045.effects3d.vector.Vector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures rotations of a single {@link Point}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PointBenchmark {
+
+    private final Point point = new Point(1, 2, 3);
+    private final Vector axis = new Vector(1, 1, 0);
+    private final Vector normalisedAxis = new Vector(0, 1, 0);
+
+    @Benchmark
+    public Point rotateAroundVector() {
+        point.rotateAroundVector(0.01f, axis);
+        return point;
+    }
+
+    @Benchmark
+    public Point rotateAroundNormalisedVector() {
+        point.rotateAroundVector(0.01f, normalisedAxis);
+        return point;
+    }
+
+    @Benchmark
+    public Point rotate() {
+        point.rotate(0.01f, 0.02f, 0.03f);
+        return point;
+    }
+
+}
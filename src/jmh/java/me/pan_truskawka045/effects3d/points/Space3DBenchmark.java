@@ -0,0 +1,98 @@
+package me.pan_truskawka045.effects3d.points;
+
+import me.pan_truskawka045.effects3d.vector.Vector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures bulk transforms of a {@link Space3D}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Space3DBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int points;
+
+    private final Vector axis = new Vector(1, 1, 0);
+    private final Point center = new Point(5, 5, 5);
+    private Space3D space;
+    private Space3D indexedSpace;
+    private Space3D parallelSpace;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(45);
+        space = new Space3D();
+        indexedSpace = new Space3D().spatialIndex(0.5f);
+        parallelSpace = new Space3D(new PointBuffer(points)).parallel(ForkJoinPool.commonPool(), 0);
+        for (int i = 0; i < points; i++) {
+            float x = random.nextFloat() * 10;
+            float y = random.nextFloat() * 10;
+            float z = random.nextFloat() * 10;
+            space.addPoint(x, y, z);
+            indexedSpace.addPoint(x, y, z);
+            parallelSpace.addPoint(x, y, z);
+        }
+    }
+
+    @Benchmark
+    public Space3D rotateAll() {
+        return space.rotateAll(0.01f, 0.02f, 0.03f);
+    }
+
+    @Benchmark
+    public Space3D rotateAllParallel() {
+        return parallelSpace.rotateAll(0.01f, 0.02f, 0.03f);
+    }
+
+    @Benchmark
+    public Space3D rotateAllAroundVector() {
+        return space.rotateAllAroundVector(0.01f, axis);
+    }
+
+    @Benchmark
+    public Space3D shiftAll() {
+        return space.shiftAll(0.1f, -0.1f, 0.05f);
+    }
+
+    @Benchmark
+    public List<Point> allInDistance() {
+        return space.allInDistance(center, 0.5f);
+    }
+
+    @Benchmark
+    public List<Point> allInDistanceIndexed() {
+        return indexedSpace.allInDistance(center, 0.5f);
+    }
+
+    @Benchmark
+    public void forEachInDistance(Blackhole blackhole) {
+        space.forEachInDistance(5, 5, 5, 0.5f, (x, y, z) -> blackhole.consume(x));
+    }
+
+    @Benchmark
+    public void forEachInDistanceIndexed(Blackhole blackhole) {
+        indexedSpace.forEachInDistance(5, 5, 5, 0.5f, (x, y, z) -> blackhole.consume(x));
+    }
+
+}
@@ -0,0 +1,76 @@
+package me.pan_truskawka045.effects3d.points;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures shape generation of {@link Space3DGraphics}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Space3DGraphicsBenchmark {
+
+    private final Point start = new Point(0, 0, 0);
+    private final Point end = new Point(20, 5, -10);
+    private final PointBuffer buffer = new PointBuffer();
+    private final ShapeCache cache = new ShapeCache(16);
+    private final Point[] controlPoints = {
+            new Point(0, 0, 0),
+            new Point(5, 10, 0),
+            new Point(15, 10, 5),
+            new Point(20, 0, 5)
+    };
+
+    @Benchmark
+    public List<Point> drawLine() {
+        return Space3DGraphics.drawLine(start, end, 0.1f);
+    }
+
+    @Benchmark
+    public PointBuffer drawLineIntoBuffer() {
+        Space3DGraphics.drawLine(start, end, 0.1f, buffer.clear());
+        return buffer;
+    }
+
+    @Benchmark
+    public List<Point> drawCircle() {
+        return Space3DGraphics.drawCircle(start, 10, 0.1f);
+    }
+
+    @Benchmark
+    public PointBuffer drawCircleCached() {
+        cache.drawCircle(start, 10, 0.1f, buffer.clear());
+        return buffer;
+    }
+
+    @Benchmark
+    public Point[] bezierCurve() {
+        return Space3DGraphics.bezierCurve(0.1f, 100, controlPoints);
+    }
+
+    @Benchmark
+    public List<Point> drawCubeWireframes() {
+        return Space3DGraphics.drawCubeWireframes(start, end, 0.1f);
+    }
+
+    @Benchmark
+    public PointBuffer drawCubeWireframesIntoBuffer() {
+        Space3DGraphics.drawCubeWireframes(start, end, 0.1f, buffer.clear());
+        return buffer;
+    }
+
+}
@@ -2,6 +2,7 @@ package me.pan_truskawka045.effects3d.animations;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.jetbrains.annotations.NotNull;
 
 @Getter
 @Setter
@@ -25,4 +26,67 @@ public abstract class AbstractFrame {
     public void reset() {
     }
 
+    /**
+     * @return amount of upcoming ticks which won't do anything except advancing internal counters.
+     * Those ticks may be skipped at once with {@link #skip(int)}
+     */
+    public int idleTicks() {
+        return 0;
+    }
+
+    /**
+     * Skips idle ticks at once, as if {@link #tick()} was called {@code ticks} times
+     *
+     * @param ticks ticks to skip, never more than {@link #idleTicks()}
+     */
+    public void skip(int ticks) {
+    }
+
+    /**
+     * Advances the frame by elapsed ticks at once, used for throttled animations, see {@link Animation#tickDivisor(int)}.
+     * Frames may collapse the ticks and do only the work of the last one, e.g. an ease only emits its latest value.
+     * By default the ticks are executed one by one, idle ticks are skipped
+     *
+     * @param ticks elapsed ticks, positive
+     * @return amount of ticks used, at least one. The frame is advanced by the rest again if it hasn't finished
+     */
+    public int advance(int ticks) {
+        int left = ticks;
+        do {
+            int idle = Math.min(idleTicks(), left);
+            if (idle > 0) {
+                skip(idle);
+                left -= idle;
+            } else {
+                tick();
+                left--;
+            }
+        } while (left > 0 && !isFinished());
+        return ticks - left;
+    }
+
+    /**
+     * Asks the frame whether it only waits for an event, like a notification or other animations finishing.
+     * The manager then parks the animation and doesn't tick it until the wake up action is called.
+     * <p>The action may be called from any thread, at any time and any amount of times,
+     * calls made while the animation isn't parked are ignored.</p>
+     *
+     * @param wakeUp action to call once the frame may continue
+     * @return true if the frame waits for an event and will call the action once it happens
+     */
+    public boolean awaitWakeUp(@NotNull Runnable wakeUp) {
+        return false;
+    }
+
+    /**
+     * Emits this frame into a program, see {@link Animation#compile()}.
+     * Frames which can't be shared between running instances don't have to implement it
+     *
+     * @param builder builder to emit instructions into
+     * @throws IllegalStateException if the frame can't be compiled
+     */
+    public void compile(@NotNull ProgramBuilder builder) {
+        throw new IllegalStateException(getClass().getSimpleName() + " cannot be compiled");
+    }
+
 }
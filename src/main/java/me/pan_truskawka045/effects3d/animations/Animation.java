@@ -5,6 +5,7 @@ import lombok.Getter;
 import me.pan_truskawka045.effects3d.animations.frames.*;
 import me.pan_truskawka045.effects3d.animations.values.EaseValue;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.function.BiConsumer;
@@ -32,23 +33,85 @@ import java.util.function.Predicate;
 @SuppressWarnings("unused")
 public class Animation extends AbstractFrame {
 
+    private static final int INDEXED_PARALLEL_ANIMATIONS = 8;
+    private static final BiConsumer<Exception, Animation> DEFAULT_EXCEPTION_HANDLER = (exc, animation) -> {
+        System.err.println("Caught an exception in animation: " + exc.getMessage());
+        animation.manager.stopAnimation(animation);
+    };
+
     private final AnimationManager manager;
     private AbstractFrame current;
     private AbstractFrame first;
     private AbstractFrame last;
     private boolean stopped = false;
     private boolean loop = false;
-    private BiConsumer<Exception, Animation> exceptionHandler;
+    private boolean started = false;
+    @Getter
+    private boolean threadSafe = false;
     @Getter
-    private final Map<String, Animation> parallelAnimations = new HashMap<>();
+    private AnimationPriority priority = AnimationPriority.NORMAL;
+    @Getter
+    private int tickDivisor = 1;
+    private BiConsumer<Exception, Animation> exceptionHandler;
+    private Object context;
+    private ProgramFrame programFrame;
+    // Parallel animations, allocated on first use. Names are looked up through an index only when there are many of them
+    private String[] parallelNames;
+    private Animation[] parallelChildren;
+    private int parallelCount;
+    private Map<String, Integer> parallelIndex;
+    private Map<String, Animation> parallelView;
+    private List<Runnable> completionCallbacks;
+    private boolean completed;
+
+    // Scheduling state, managed by AnimationManager
+    AnimationBucket bucket;
+    int index = -1;
+    boolean parked;
+    long parkedAt;
+    long wakeTick;
+    boolean tickingConcurrently;
+    // Parked until a frame calls the wake up action
+    boolean blocked;
+    Runnable wakeUp;
+    // Manager tick the animation was advanced to, -1 until it's added to a manager
+    long advancedTo = -1;
+
+    // Metrics of sampled ticks, managed by AnimationManager
+    long sampledNanos;
+    long lastTickNanos;
+    Class<? extends AbstractFrame> sampledFrameType;
 
     public Animation(@NotNull AnimationManager manager) {
         Preconditions.checkNotNull(manager, "manager cannot be null");
         this.manager = manager;
-        exceptionHandler = (exc, animation) -> {
-            System.err.println("Caught an exception in animation: " + exc.getMessage());
-            this.manager.stopAnimation(this);
-        };
+        this.exceptionHandler = DEFAULT_EXCEPTION_HANDLER;
+    }
+
+    /**
+     * Resets this finished animation to the state of a new one, see {@link AnimationManager#pooling(int)}.
+     * The frame running a program is kept, so it can be reused by the next program
+     */
+    void recycle() {
+        current = null;
+        first = null;
+        last = null;
+        stopped = false;
+        loop = false;
+        started = false;
+        threadSafe = false;
+        priority = AnimationPriority.NORMAL;
+        tickDivisor = 1;
+        exceptionHandler = DEFAULT_EXCEPTION_HANDLER;
+        context = null;
+        clearParallelAnimations();
+        completionCallbacks = null;
+        completed = false;
+        sampledNanos = 0;
+        advancedTo = -1;
+        if (programFrame != null) {
+            programFrame.setNextFrame(null);
+        }
     }
 
     /**
@@ -60,6 +123,7 @@ public class Animation extends AbstractFrame {
             if (stopped || current == null) {
                 return;
             }
+            started = true;
             current.tick();
             if (current.isFinished()) {
                 if (loop) {
@@ -71,16 +135,319 @@ public class Animation extends AbstractFrame {
                     last = null;
                 }
             }
-            for (Animation value : parallelAnimations.values()) {
+            for (int i = 0; i < parallelCount; i++) {
+                Animation value = parallelChildren[i];
                 if (!value.isFinished()) {
                     value.tick();
                 }
             }
+            if (!completed && isFinished()) {
+                complete();
+            }
         } catch (Exception exc) {
             exceptionHandler.accept(exc, this);
         }
     }
 
+    /**
+     * Advances the animation by elapsed ticks, frames are advanced one after another and may collapse the ticks.
+     * Parallel animations are advanced by the ticks used by each frame
+     */
+    @Override
+    public int advance(int ticks) {
+        int left = ticks;
+        try {
+            while (left > 0 && current != null && !isFinished()) {
+                started = true;
+                int used = current.advance(left);
+                if (current.isFinished()) {
+                    if (loop) {
+                        current.reset();
+                        addFrame(current);
+                    }
+                    current = current.getNextFrame();
+                    if (current == null) {
+                        last = null;
+                    }
+                }
+                for (int i = 0; i < parallelCount; i++) {
+                    Animation value = parallelChildren[i];
+                    if (!value.isFinished()) {
+                        value.advance(used);
+                    }
+                }
+                left -= used;
+            }
+            if (!completed && isFinished()) {
+                complete();
+            }
+        } catch (Exception exc) {
+            exceptionHandler.accept(exc, this);
+        }
+        return ticks - left;
+    }
+
+    /**
+     * @return amount of ticks in which neither the current frame nor any running parallel animation does anything
+     */
+    @Override
+    public int idleTicks() {
+        if (stopped || current == null) {
+            return 0;
+        }
+        int idle = current.idleTicks();
+        for (int i = 0; i < parallelCount && idle > 0; i++) {
+            Animation value = parallelChildren[i];
+            if (!value.isFinished()) {
+                idle = Math.min(idle, value.idleTicks());
+            }
+        }
+        return idle;
+    }
+
+    @Override
+    public void skip(int ticks) {
+        if (stopped || current == null) {
+            return;
+        }
+        current.skip(ticks);
+        for (int i = 0; i < parallelCount; i++) {
+            Animation value = parallelChildren[i];
+            if (!value.isFinished()) {
+                value.skip(ticks);
+            }
+        }
+    }
+
+    /**
+     * The animation is blocked only if the current frame and all running parallel animations wait for an event
+     */
+    @Override
+    public boolean awaitWakeUp(@NotNull Runnable wakeUp) {
+        if (stopped || current == null) {
+            return false;
+        }
+        for (int i = 0; i < parallelCount; i++) {
+            Animation value = parallelChildren[i];
+            if (!value.isFinished() && !value.awaitWakeUp(wakeUp)) {
+                return false;
+            }
+        }
+        return current.awaitWakeUp(wakeUp);
+    }
+
+    /**
+     * Runs the callback once the animation finishes or is stopped, on the thread which finished it.
+     * If the animation has already finished, the callback is run immediately
+     *
+     * @param callback callback to run
+     * @return current animation
+     */
+    public @NotNull Animation onCompletion(@NotNull Runnable callback) {
+        Preconditions.checkNotNull(callback, "callback cannot be null");
+        boolean finished = isFinished();
+        synchronized (this) {
+            if (!completed && !finished) {
+                if (completionCallbacks == null) {
+                    completionCallbacks = new ArrayList<>(2);
+                }
+                completionCallbacks.add(callback);
+                return this;
+            }
+        }
+        callback.run();
+        return this;
+    }
+
+    private void complete() {
+        List<Runnable> callbacks;
+        synchronized (this) {
+            if (completed) {
+                return;
+            }
+            completed = true;
+            callbacks = completionCallbacks;
+            completionCallbacks = null;
+        }
+        if (callbacks != null) {
+            for (Runnable callback : callbacks) {
+                callback.run();
+            }
+        }
+    }
+
+    /**
+     * @return type of the frame which will be executed next, frames of nested animations are resolved
+     */
+    Class<? extends AbstractFrame> currentFrameType() {
+        AbstractFrame frame = current;
+        if (frame instanceof Animation) {
+            return ((Animation) frame).currentFrameType();
+        }
+        return frame == null ? Animation.class : frame.getClass();
+    }
+
+    /**
+     * @param name name of the parallel animation
+     * @return parallel animation started with given name, or null if there is none
+     * @see #runInParallel(String, Animation)
+     */
+    public @Nullable Animation getParallelAnimation(@NotNull String name) {
+        int index = indexOfParallelAnimation(name);
+        return index < 0 ? null : parallelChildren[index];
+    }
+
+    /**
+     * Starts ticking given animation together with this one, replacing the parallel animation with the same name
+     *
+     * @param name      name of the parallel animation
+     * @param animation parallel animation
+     */
+    public void putParallelAnimation(@NotNull String name, @NotNull Animation animation) {
+        Preconditions.checkNotNull(name, "name cannot be null");
+        Preconditions.checkNotNull(animation, "animation cannot be null");
+        int index = indexOfParallelAnimation(name);
+        if (index >= 0) {
+            parallelChildren[index] = animation;
+            return;
+        }
+        if (parallelNames == null) {
+            parallelNames = new String[2];
+            parallelChildren = new Animation[2];
+        } else if (parallelCount == parallelNames.length) {
+            parallelNames = Arrays.copyOf(parallelNames, parallelCount * 2);
+            parallelChildren = Arrays.copyOf(parallelChildren, parallelCount * 2);
+        }
+        parallelNames[parallelCount] = name;
+        parallelChildren[parallelCount] = animation;
+        parallelCount++;
+        if (parallelIndex != null) {
+            parallelIndex.put(name, parallelCount - 1);
+        } else if (parallelCount > INDEXED_PARALLEL_ANIMATIONS) {
+            parallelIndex = new HashMap<>();
+            for (int i = 0; i < parallelCount; i++) {
+                parallelIndex.put(parallelNames[i], i);
+            }
+        }
+    }
+
+    /**
+     * Returns a view of the parallel animations, keyed by their names.
+     * Nothing is allocated for animations which never run anything in parallel
+     *
+     * @return modifiable map view
+     * @see #getParallelAnimation(String)
+     */
+    public @NotNull Map<String, Animation> getParallelAnimations() {
+        if (parallelView == null) {
+            parallelView = new ParallelAnimationsView();
+        }
+        return parallelView;
+    }
+
+    private int indexOfParallelAnimation(String name) {
+        if (parallelIndex != null) {
+            Integer index = parallelIndex.get(name);
+            return index == null ? -1 : index;
+        }
+        for (int i = 0; i < parallelCount; i++) {
+            if (parallelNames[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void removeParallelAnimation(int index) {
+        String name = parallelNames[index];
+        int moved = parallelCount - index - 1;
+        System.arraycopy(parallelNames, index + 1, parallelNames, index, moved);
+        System.arraycopy(parallelChildren, index + 1, parallelChildren, index, moved);
+        parallelCount--;
+        parallelNames[parallelCount] = null;
+        parallelChildren[parallelCount] = null;
+        if (parallelIndex != null) {
+            parallelIndex.remove(name);
+            for (int i = index; i < parallelCount; i++) {
+                parallelIndex.put(parallelNames[i], i);
+            }
+        }
+    }
+
+    private void clearParallelAnimations() {
+        if (parallelCount > 0) {
+            Arrays.fill(parallelNames, 0, parallelCount, null);
+            Arrays.fill(parallelChildren, 0, parallelCount, null);
+            parallelCount = 0;
+            parallelIndex = null;
+        }
+    }
+
+    /**
+     * Compiles this animation into a program, which can be run by any amount of animations at once.
+     * <p>Frames are lowered into a compact instruction stream, while the runnables, consumers and other
+     * arguments are shared by all running instances. Frames referring to specific running animations,
+     * like {@link #waitForCompletion(Animation...)} or {@link #join(Animation...)}, cannot be compiled.</p>
+     *
+     * @return compiled program
+     * @throws IllegalStateException if the animation has already started, or contains a frame which can't be compiled
+     * @see AnimationManager#newAnimation(AnimationProgram)
+     */
+    public @NotNull AnimationProgram compile() {
+        ProgramBuilder builder = new ProgramBuilder(this);
+        emitFrames(builder);
+        return builder.build(loop, threadSafe);
+    }
+
+    /**
+     * Inlines frames of this animation into the program of the animation it's added to
+     */
+    @Override
+    public void compile(@NotNull ProgramBuilder builder) {
+        Preconditions.checkState(!loop, "looped animations cannot be compiled into another animation");
+        builder.inline(this);
+    }
+
+    void emitFrames(ProgramBuilder builder) {
+        Preconditions.checkState(!started && !stopped, "started animations cannot be compiled");
+        Preconditions.checkState(parallelCount == 0, "animations with running parallel animations cannot be compiled");
+        for (AbstractFrame frame = first; frame != null; frame = frame.getNextFrame()) {
+            frame.compile(builder);
+            if (frame == last) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Makes this animation run given program
+     *
+     * @param context context passed to the actions of the program, may be null
+     */
+    void run(AnimationProgram program, Object context) {
+        this.loop = program.isLooped();
+        this.threadSafe = program.isThreadSafe();
+        this.context = context;
+        if (programFrame == null) {
+            programFrame = new ProgramFrame(program, this, manager, context);
+        } else {
+            programFrame.init(program, context);
+        }
+        this.addFrame(programFrame);
+    }
+
+    /**
+     * Returns the context this animation was spawned with
+     *
+     * @param <C> type of the context
+     * @return context, or null if the animation wasn't spawned from a template
+     * @see AnimationManager#spawn(AnimationTemplate, Object)
+     */
+    @SuppressWarnings("unchecked")
+    public <C> C getContext() {
+        return (C) context;
+    }
+
     /**
      * Sets the animation exception handler
      *
@@ -109,6 +476,7 @@ public class Animation extends AbstractFrame {
     public void stop() {
         manager.stopAnimation(this);
         this.stopped = true;
+        complete();
     }
 
     /**
@@ -238,6 +606,20 @@ public class Animation extends AbstractFrame {
      * @see ValueFrame
      */
     public @NotNull Animation untilValue(float startValue, float target, float maxStep, @NotNull Consumer<Float> consumer) {
+        return untilValue(startValue, target, maxStep, FloatConsumer.of(consumer));
+    }
+
+    /**
+     * Repeats provided consumer until target value equals startValue
+     *
+     * @param startValue first frame value
+     * @param target     target value (last value)
+     * @param maxStep    max step between each frame
+     * @param consumer   consumer to run, values are passed without boxing
+     * @return current animation
+     * @see ValueFrame
+     */
+    public @NotNull Animation untilValue(float startValue, float target, float maxStep, @NotNull FloatConsumer consumer) {
         Preconditions.checkNotNull(consumer, "consumer cannot be null");
         Preconditions.checkArgument(maxStep > 0, "maxStep must be positive");
         this.addFrame(new ValueFrame(startValue, target, maxStep, consumer, 1));
@@ -256,6 +638,21 @@ public class Animation extends AbstractFrame {
      * @see ValueFrame
      */
     public @NotNull Animation untilValue(float startValue, float target, float maxStep, @NotNull Consumer<Float> consumer, int ticksBetween) {
+        return untilValue(startValue, target, maxStep, FloatConsumer.of(consumer), ticksBetween);
+    }
+
+    /**
+     * Repeats provided consumer until target value equals startValue
+     *
+     * @param startValue   first frame value
+     * @param target       target value (last value)
+     * @param maxStep      max step between each frame
+     * @param consumer     consumer to run, values are passed without boxing
+     * @param ticksBetween ticks between each frame
+     * @return current animation
+     * @see ValueFrame
+     */
+    public @NotNull Animation untilValue(float startValue, float target, float maxStep, @NotNull FloatConsumer consumer, int ticksBetween) {
         Preconditions.checkNotNull(consumer, "consumer cannot be null");
         Preconditions.checkArgument(maxStep > 0, "maxStep must be positive");
         Preconditions.checkArgument(ticksBetween > 0, "ticksBetween must be positive");
@@ -275,6 +672,20 @@ public class Animation extends AbstractFrame {
      * @see EaseFunctionFrame
      */
     public @NotNull Animation easeFunction(float startValue, float endValue, @NotNull EaseFunction easeFunction, int steps, int ticksPerStep, @NotNull Consumer<Float> consumer) {
+        return easeFunction(startValue, endValue, easeFunction, steps, ticksPerStep, FloatConsumer.of(consumer));
+    }
+
+    /**
+     * @param startValue   first frame value
+     * @param endValue     last frame value
+     * @param easeFunction ease function to use
+     * @param steps        steps to take
+     * @param ticksPerStep ticks between each step
+     * @param consumer     consumer to run, values are passed without boxing
+     * @return current animation
+     * @see EaseFunctionFrame
+     */
+    public @NotNull Animation easeFunction(float startValue, float endValue, @NotNull EaseFunction easeFunction, int steps, int ticksPerStep, @NotNull FloatConsumer consumer) {
         Preconditions.checkNotNull(easeFunction, "easeFunction cannot be null");
         Preconditions.checkNotNull(consumer, "consumer cannot be null");
         Preconditions.checkArgument(steps > 0, "steps must be positive");
@@ -295,6 +706,21 @@ public class Animation extends AbstractFrame {
      * @see EaseFunctionFrame
      */
     public @NotNull Animation linearEaseFunction(float startValue, float endValue, int steps, int ticksPerStep, @NotNull Consumer<Float> consumer) {
+        return linearEaseFunction(startValue, endValue, steps, ticksPerStep, FloatConsumer.of(consumer));
+    }
+
+    /**
+     * Ease function with linear ease function
+     *
+     * @param startValue   first frame value
+     * @param endValue     last frame value
+     * @param steps        steps to take
+     * @param ticksPerStep ticks between each step
+     * @param consumer     consumer to run, values are passed without boxing
+     * @return current animation
+     * @see EaseFunctionFrame
+     */
+    public @NotNull Animation linearEaseFunction(float startValue, float endValue, int steps, int ticksPerStep, @NotNull FloatConsumer consumer) {
         Preconditions.checkNotNull(consumer, "consumer cannot be null");
         Preconditions.checkArgument(steps > 0, "steps must be positive");
         Preconditions.checkArgument(ticksPerStep > 0, "ticksPerStep must be positive");
@@ -314,6 +740,21 @@ public class Animation extends AbstractFrame {
      * @see EaseFunctionFrame
      */
     public @NotNull Animation easeFunction(float startValue, float endValue, @NotNull EaseFunction easeFunction, int step, @NotNull Consumer<Float> consumer) {
+        return easeFunction(startValue, endValue, easeFunction, step, FloatConsumer.of(consumer));
+    }
+
+    /**
+     * Ease function with linear ease function
+     *
+     * @param startValue   first frame value
+     * @param endValue     last frame value
+     * @param easeFunction ease function to use
+     * @param step         step to take
+     * @param consumer     consumer to run, values are passed without boxing
+     * @return current animation
+     * @see EaseFunctionFrame
+     */
+    public @NotNull Animation easeFunction(float startValue, float endValue, @NotNull EaseFunction easeFunction, int step, @NotNull FloatConsumer consumer) {
         Preconditions.checkNotNull(easeFunction, "easeFunction cannot be null");
         Preconditions.checkNotNull(consumer, "consumer cannot be null");
         Preconditions.checkArgument(step > 0, "step must be positive");
@@ -332,6 +773,20 @@ public class Animation extends AbstractFrame {
      * @see EaseFunctionFrame
      */
     public @NotNull Animation linearEaseFunction(float startValue, float endValue, int step, @NotNull Consumer<Float> consumer) {
+        return linearEaseFunction(startValue, endValue, step, FloatConsumer.of(consumer));
+    }
+
+    /**
+     * Ease function with linear ease function
+     *
+     * @param startValue first frame value
+     * @param endValue   last frame value
+     * @param step       step to take
+     * @param consumer   consumer to run, values are passed without boxing
+     * @return current animation
+     * @see EaseFunctionFrame
+     */
+    public @NotNull Animation linearEaseFunction(float startValue, float endValue, int step, @NotNull FloatConsumer consumer) {
         Preconditions.checkNotNull(consumer, "consumer cannot be null");
         Preconditions.checkArgument(step > 0, "step must be positive");
         this.addFrame(new EaseFunctionFrame(startValue, endValue, EaseFunctions.LINEAR, step, 1, consumer));
@@ -412,6 +867,47 @@ public class Animation extends AbstractFrame {
         return this;
     }
 
+    /**
+     * Runs {@param steps} steps per {@param ticksPerStep} ticks, easing the values into given buffer.
+     * <p>The same buffer is passed to the consumer on every step, so it must not be retained.
+     * A compiled animation doesn't write into the buffer, each running instance passes an array of its own.</p>
+     *
+     * @param steps        steps to take
+     * @param ticksPerStep ticks between each step
+     * @param buffer       buffer to write values into, at least as long as {@param easeValues}
+     * @param consumer     consumer with <code>float[]</code> as
+     * @param easeValues   ease values
+     * @return current animation
+     * @see MultipleEaseFunctionsFrame
+     */
+    public @NotNull Animation easeFunctions(int steps, int ticksPerStep, @NotNull float[] buffer, @NotNull Consumer<float[]> consumer, @NotNull EaseValue... easeValues) {
+        Preconditions.checkArgument(steps > 0, "steps must be positive");
+        Preconditions.checkArgument(ticksPerStep > 0, "ticksPerStep must be positive");
+        Preconditions.checkNotNull(buffer, "buffer cannot be null");
+        Preconditions.checkNotNull(consumer, "consumer cannot be null");
+        Preconditions.checkNotNull(easeValues, "easeValues cannot be null");
+        Preconditions.checkArgument(buffer.length >= easeValues.length, "buffer is shorter than easeValues");
+        this.addFrame(new MultipleEaseFunctionsFrame(easeValues, consumer, steps, ticksPerStep, buffer));
+        return this;
+    }
+
+    /**
+     * Runs {@param steps} steps per {@param ticksPerStep} ticks, easing the values into one reused array.
+     * <p>Unlike {@link #easeFunctions(int, int, Consumer, EaseValue...)} it doesn't allocate an array
+     * on every step. The same array is passed to the consumer on every step, so it must not be retained.</p>
+     *
+     * @param steps        steps to take
+     * @param ticksPerStep ticks between each step
+     * @param consumer     consumer with <code>float[]</code> as
+     * @param easeValues   ease values
+     * @return current animation
+     * @see MultipleEaseFunctionsFrame
+     */
+    public @NotNull Animation reusableEaseFunctions(int steps, int ticksPerStep, @NotNull Consumer<float[]> consumer, @NotNull EaseValue... easeValues) {
+        Preconditions.checkNotNull(easeValues, "easeValues cannot be null");
+        return easeFunctions(steps, ticksPerStep, new float[easeValues.length], consumer, easeValues);
+    }
+
     /**
      * Runs {@param steps} steps, each per tick, easing the values with {@param easeFunction}
      *
@@ -592,6 +1088,49 @@ public class Animation extends AbstractFrame {
         return this;
     }
 
+    /**
+     * Marks the animation as thread-safe, so it may be ticked off the caller thread
+     * when the manager runs in parallel mode.
+     * Only use it for animations which don't touch shared state, e.g. ones which only compute points.
+     *
+     * @return current animation
+     * @see AnimationManager#parallel(java.util.concurrent.ForkJoinPool, int)
+     */
+    public @NotNull Animation threadSafe() {
+        this.threadSafe = true;
+        return this;
+    }
+
+    /**
+     * Sets the priority of the animation, the manager applies it after the next tick of the animation
+     *
+     * @param priority priority
+     * @return current animation
+     * @see AnimationManager#tickBudgeted(long)
+     */
+    public @NotNull Animation priority(@NotNull AnimationPriority priority) {
+        Preconditions.checkNotNull(priority, "priority cannot be null");
+        this.priority = priority;
+        return this;
+    }
+
+    /**
+     * Makes the manager tick the animation only every {@code divisor}-th tick, e.g. for cosmetic effects
+     * far from any player. The animation is then advanced by all ticks since its previous tick at once,
+     * so it keeps its duration. Frames collapse those ticks, e.g. an ease only emits the value of its latest step,
+     * while catching up with {@link AnimationManager#tick(int)} still runs every tick.
+     * The manager applies it after the next tick of the animation
+     *
+     * @param divisor every how many ticks the animation is ticked, 1 to tick it every tick
+     * @return current animation
+     * @see AnimationManager#priorityDivisor(AnimationPriority, int)
+     */
+    public @NotNull Animation tickDivisor(int divisor) {
+        Preconditions.checkArgument(divisor > 0, "divisor must be positive");
+        this.tickDivisor = divisor;
+        return this;
+    }
+
     /**
      * Makes animation never end
      *
@@ -635,4 +1174,108 @@ public class Animation extends AbstractFrame {
     }
 
 
+    private class ParallelAnimationsView extends AbstractMap<String, Animation> {
+
+        @Override
+        public Animation get(Object key) {
+            return key instanceof String ? getParallelAnimation((String) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String && indexOfParallelAnimation((String) key) >= 0;
+        }
+
+        @Override
+        public Animation put(String key, Animation value) {
+            Animation previous = getParallelAnimation(key);
+            putParallelAnimation(key, value);
+            return previous;
+        }
+
+        @Override
+        public Animation remove(Object key) {
+            int index = key instanceof String ? indexOfParallelAnimation((String) key) : -1;
+            if (index < 0) {
+                return null;
+            }
+            Animation previous = parallelChildren[index];
+            removeParallelAnimation(index);
+            return previous;
+        }
+
+        @Override
+        public void clear() {
+            clearParallelAnimations();
+        }
+
+        @Override
+        public int size() {
+            return parallelCount;
+        }
+
+        @Override
+        public @NotNull Set<Entry<String, Animation>> entrySet() {
+            return new AbstractSet<Entry<String, Animation>>() {
+                @Override
+                public @NotNull Iterator<Entry<String, Animation>> iterator() {
+                    return new Iterator<Entry<String, Animation>>() {
+                        private int index;
+                        private boolean removable;
+
+                        @Override
+                        public boolean hasNext() {
+                            return index < parallelCount;
+                        }
+
+                        @Override
+                        public Entry<String, Animation> next() {
+                            if (index >= parallelCount) {
+                                throw new NoSuchElementException();
+                            }
+                            int i = index++;
+                            removable = true;
+                            return new ParallelEntry(parallelNames[i], parallelChildren[i]);
+                        }
+
+                        @Override
+                        public void remove() {
+                            if (!removable) {
+                                throw new IllegalStateException();
+                            }
+                            removable = false;
+                            removeParallelAnimation(--index);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return parallelCount;
+                }
+            };
+        }
+    }
+
+    /**
+     * Entry of {@link ParallelAnimationsView}, setting its value replaces the parallel animation
+     */
+    private class ParallelEntry extends AbstractMap.SimpleEntry<String, Animation> {
+
+        private static final long serialVersionUID = 1L;
+
+        ParallelEntry(String name, Animation animation) {
+            super(name, animation);
+        }
+
+        @Override
+        public Animation setValue(Animation value) {
+            Preconditions.checkNotNull(value, "value cannot be null");
+            int index = indexOfParallelAnimation(getKey());
+            Preconditions.checkState(index >= 0, "parallel animation was removed");
+            parallelChildren[index] = value;
+            return super.setValue(value);
+        }
+    }
+
 }
@@ -0,0 +1,98 @@
+package me.pan_truskawka045.effects3d.animations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Animations of one priority and tick divisor ticked by an {@link AnimationManager}.
+ * Animations with a divisor are spread over the phases, the bucket is ticked in the ticks whose
+ * number modulo the divisor equals its phase
+ */
+final class AnimationBucket {
+
+    final AnimationPriority priority;
+    final int divisor;
+    final int phase;
+    final List<Animation> animations = new ArrayList<>();
+    // Where the next budgeted tick starts, so deferred animations are ticked first
+    int cursor;
+    // Tick the animations are advanced to by the running tick, or -1 if the bucket isn't ticked
+    long dueTick = -1;
+    // Whether the animations are advanced by all elapsed ticks at once, see AbstractFrame#advance(int)
+    boolean collapse;
+
+    AnimationBucket(AnimationPriority priority, int divisor, int phase) {
+        this.priority = priority;
+        this.divisor = divisor;
+        this.phase = phase;
+    }
+
+    /**
+     * Computes the tick the animations are advanced to by a tick covering the range
+     *
+     * @param from last tick of the previous call, exclusive
+     * @param to   last tick of the range, inclusive
+     */
+    void schedule(long from, long to) {
+        long tick = to - Math.floorMod(to - phase, (long) divisor);
+        dueTick = tick > from ? tick : -1;
+        // Catching up after a lag replays every tick, only the regular ticks of throttled buckets are collapsed
+        collapse = divisor > 1 && to - from == 1;
+    }
+
+    void add(Animation animation) {
+        animation.bucket = this;
+        animation.index = animations.size();
+        animations.add(animation);
+    }
+
+    /**
+     * Removes given animations keeping the order of the rest, the cursor is moved
+     * to the first remaining animation at or after it
+     *
+     * @param removed animations to remove, animations of other buckets are ignored
+     */
+    void removeInOrder(List<Animation> removed) {
+        for (Animation animation : removed) {
+            if (animation.bucket == this) {
+                animation.bucket = null;
+            }
+        }
+        int kept = 0;
+        int newCursor = 0;
+        for (int i = 0; i < animations.size(); i++) {
+            Animation animation = animations.get(i);
+            if (i == cursor) {
+                newCursor = kept;
+            }
+            if (animation.bucket != this) {
+                animation.index = -1;
+                continue;
+            }
+            animation.index = kept;
+            animations.set(kept++, animation);
+        }
+        animations.subList(kept, animations.size()).clear();
+        cursor = newCursor < kept ? newCursor : 0;
+    }
+
+    /**
+     * Removes an animation, the last animation is swapped into its index
+     *
+     * @return true if the animation was in this bucket
+     */
+    boolean remove(Animation animation) {
+        int index = animation.index;
+        if (animation.bucket != this || index < 0 || index >= animations.size() || animations.get(index) != animation) {
+            return false;
+        }
+        Animation last = animations.remove(animations.size() - 1);
+        if (last != animation) {
+            animations.set(index, last);
+            last.index = index;
+        }
+        animation.index = -1;
+        animation.bucket = null;
+        return true;
+    }
+}
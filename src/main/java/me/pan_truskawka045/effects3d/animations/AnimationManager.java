@@ -1,57 +1,725 @@
 package me.pan_truskawka045.effects3d.animations;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.ConcurrentModificationException;
-import java.util.IdentityHashMap;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Set;
+import com.google.common.base.Preconditions;
+import org.jetbrains.annotations.NotNull;
 
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ticks animations
+ * <p>Animations can be created and stopped from any thread without blocking,
+ * the requests are queued and applied by the ticking thread.</p>
+ */
 public class AnimationManager {
 
-    private final List<Animation> animations = new ArrayList<>();
-    private final Set<Animation> animationsToRemove = Collections.newSetFromMap(new IdentityHashMap<>());
+    private static final long DEFAULT_TICK_LENGTH = TimeUnit.MILLISECONDS.toNanos(50);
+
+    // One group per priority and tick divisor, with a bucket for each phase, ordered by priority
+    private final List<AnimationBucket[]> bucketGroups = new ArrayList<>();
+    private final int[] priorityDivisors = new int[AnimationPriority.values().length];
+    private long currentTick;
+    private final List<Animation> settledAnimations = new ArrayList<>();
+    private final Queue<Animation> animationsToAdd = new ConcurrentLinkedQueue<>();
+    private final Queue<Animation> animationsToRemove = new ConcurrentLinkedQueue<>();
+    private final Queue<Animation> animationsToWake = new ConcurrentLinkedQueue<>();
+    private final Set<Animation> blockedAnimations = Collections.newSetFromMap(new IdentityHashMap<>());
     private final Object SYNC = new Object();
+    private TimingWheel timingWheel;
+    private final List<Animation> concurrentAnimations = new ArrayList<>();
+    private ForkJoinPool pool;
+    private int shards;
+    private final ArrayDeque<Animation> animationPool = new ArrayDeque<>();
+    private int maxPooledAnimations;
+    private final List<Animation> finishedAnimations = new ArrayList<>();
+    private long tickLength = DEFAULT_TICK_LENGTH;
+    private long pendingNanos;
+    private int parkedAnimations;
+    private MetricsRecorder metrics;
+
+    public AnimationManager() {
+        for (AnimationPriority priority : AnimationPriority.values()) {
+            priorityDivisors[priority.ordinal()] = 1;
+            group(priority, 1);
+        }
+    }
 
     /**
      * Ticks all animations
      */
     public void tick() {
+        tick(1);
+    }
+
+    /**
+     * Advances all animations by given amount of ticks, e.g. to catch up after a lag.
+     * <p>Ticks in which a frame only waits, like {@link Animation#sleep(int)} or the delay between
+     * the steps of {@link Animation#easeFunction(float, float, EaseFunction, int, int, FloatConsumer)},
+     * are skipped at once. The other ticks are executed one by one, each animation runs all its
+     * ticks before the next animation. Animations created during the call start with the next call.</p>
+     * <p>Animations with a tick divisor are advanced to the last of the given ticks they're due in,
+     * see {@link Animation#tickDivisor(int)}.</p>
+     *
+     * @param ticks amount of ticks
+     * @see AbstractFrame#idleTicks()
+     */
+    public void tick(int ticks) {
+        Preconditions.checkArgument(ticks > 0, "ticks must be positive");
+        runTick(ticks, 0);
+    }
+
+    /**
+     * Ticks animations until the time budget is spent.
+     * <p>Animations are ticked in the order of their {@link AnimationPriority}. Once the budget is spent,
+     * the remaining animations are deferred to the next tick, except for {@link AnimationPriority#HIGH} ones.
+     * Deferred animations are ticked first by the next budgeted tick, and they catch up on the missed ticks
+     * like in {@link #tick(int)}. In this mode thread-safe animations are ticked on the calling thread too.</p>
+     *
+     * @param maxNanos time budget in nanoseconds
+     * @return amount of deferred animations
+     */
+    public int tickBudgeted(long maxNanos) {
+        Preconditions.checkArgument(maxNanos > 0, "maxNanos must be positive");
+        return runTick(1, maxNanos);
+    }
+
+    /**
+     * @param maxNanos time budget, or 0 to tick all animations
+     * @return amount of deferred animations
+     */
+    private int runTick(int ticks, long maxNanos) {
         synchronized (SYNC) {
+            long start = System.nanoTime();
+            drainQueues();
+            long from = currentTick;
+            if (timingWheel != null) {
+                for (int step = 0; step < ticks; step++) {
+                    // Woken animations are advanced from the tick before their wake tick
+                    currentTick = from + step;
+                    timingWheel.advance(this::wake);
+                }
+            }
+            currentTick = from + ticks;
+            for (AnimationBucket[] group : bucketGroups) {
+                for (AnimationBucket bucket : group) {
+                    bucket.schedule(from, currentTick);
+                }
+            }
+            boolean sampled = metrics != null && metrics.sampleTick();
+            ForkJoinTask<?> concurrentTick = pool == null || maxNanos > 0 ? null : forkConcurrentTick(sampled);
+            int deferred = 0;
             try {
-                Iterator<Animation> iterator = animations.iterator();
-                while (iterator.hasNext()) {
-                    Animation animation = iterator.next();
-                    if (animation.isFinished() || animationsToRemove.remove(animation)) {
-                        iterator.remove();
-                        continue;
+                for (AnimationBucket[] group : bucketGroups) {
+                    for (AnimationBucket bucket : group) {
+                        if (bucket.dueTick < 0) {
+                            continue;
+                        }
+                        if (maxNanos > 0 && bucket.priority != AnimationPriority.HIGH) {
+                            deferred += tickBucket(bucket, sampled, start + maxNanos);
+                        } else {
+                            tickBucket(bucket, sampled);
+                        }
+                    }
+                }
+            } finally {
+                if (concurrentTick != null) {
+                    joinConcurrentTick(concurrentTick, sampled);
+                }
+                drainQueues();
+                releaseFinished();
+                if (metrics != null) {
+                    metrics.deferredAnimations += deferred;
+                    if (sampled) {
+                        metrics.recordTick(System.nanoTime() - start);
                     }
-                    animation.tick();
+                }
+            }
+            return deferred;
+        }
+    }
+
+    private void tickBucket(AnimationBucket bucket, boolean sampled) {
+        List<Animation> animations = bucket.animations;
+        for (int i = 0; i < animations.size(); ) {
+            Animation animation = animations.get(i);
+            if (!animation.tickingConcurrently) {
+                tickAnimation(animation, bucket, sampled);
+                if (settle(animation)) {
+                    // The last animation is swapped into this index, so it's visited next
+                    continue;
+                }
+            }
+            i++;
+        }
+    }
+
+    /**
+     * Ticks animations of a bucket in round-robin order until the deadline
+     *
+     * @return amount of deferred animations
+     */
+    private int tickBucket(AnimationBucket bucket, boolean sampled, long deadline) {
+        List<Animation> animations = bucket.animations;
+        int size = animations.size();
+        int start = bucket.cursor < size ? bucket.cursor : 0;
+        int ticked = 0;
+        // Settled animations are removed after the loop, so the indices stay valid while ticking
+        while (ticked < size && System.nanoTime() - deadline < 0) {
+            Animation animation = animations.get((start + ticked) % size);
+            tickAnimation(animation, bucket, sampled);
+            if (animation.isFinished() || park(animation) || !fits(animation, bucket)) {
+                settledAnimations.add(animation);
+            }
+            ticked++;
+        }
+        // Deferred animations catch up when they're ticked next time, as they weren't advanced
+        bucket.cursor = size == 0 ? 0 : (start + ticked) % size;
+        // Removed without swapping, so the round-robin order and the cursor are kept
+        bucket.removeInOrder(settledAnimations);
+        for (Animation animation : settledAnimations) {
+            if (animation.parked || animation.isFinished()) {
+                retire(animation);
+            } else {
+                animationsToAdd.add(animation);
+            }
+        }
+        settledAnimations.clear();
+        return size - ticked;
+    }
+
+    private void tickAnimation(Animation animation, AnimationBucket bucket, boolean sampled) {
+        if (sampled) {
+            sampledAdvance(animation, bucket);
+            metrics.recordAnimation(animation);
+        } else {
+            advance(animation, bucket);
+        }
+    }
 
-                    if (animationsToRemove.remove(animation)) {
-                        iterator.remove();
+    /**
+     * Removes a ticked animation from its bucket if it has finished, got parked or changed its priority or tick divisor
+     *
+     * @return true if the animation was removed
+     */
+    private boolean settle(Animation animation) {
+        if (animation.isFinished() || park(animation)) {
+            remove(animation);
+            retire(animation);
+            return true;
+        }
+        if (!fits(animation, animation.bucket)) {
+            // Added to the new bucket after the tick, so it isn't ticked twice
+            remove(animation);
+            animationsToAdd.add(animation);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the bucket matches the priority and the tick divisor of the animation
+     */
+    private boolean fits(Animation animation, AnimationBucket bucket) {
+        return animation.getPriority() == bucket.priority && tickDivisor(animation) == bucket.divisor;
+    }
+
+    private int tickDivisor(Animation animation) {
+        return Math.max(animation.getTickDivisor(), priorityDivisors[animation.getPriority().ordinal()]);
+    }
+
+    /**
+     * Sets the tick divisor of all animations with given priority, e.g. to tick {@link AnimationPriority#LOW}
+     * animations only every 2nd tick under load. Animations with a greater divisor of their own keep it.
+     * It's applied after the next tick of each animation
+     *
+     * @param priority priority
+     * @param divisor  every how many ticks the animations are ticked, 1 to tick them every tick
+     * @return this
+     * @see Animation#tickDivisor(int)
+     */
+    public @NotNull AnimationManager priorityDivisor(@NotNull AnimationPriority priority, int divisor) {
+        Preconditions.checkNotNull(priority, "priority cannot be null");
+        Preconditions.checkArgument(divisor > 0, "divisor must be positive");
+        synchronized (SYNC) {
+            priorityDivisors[priority.ordinal()] = divisor;
+        }
+        return this;
+    }
+
+    /**
+     * Advances all animations by elapsed time, in whole ticks of {@link #tickLength(long)}.
+     * The remainder is carried over to the next call, so animations follow the wall clock
+     * no matter how often this method is called
+     *
+     * @param nanos elapsed time in nanoseconds
+     * @return amount of ticks the animations were advanced by
+     * @see #tick(int)
+     */
+    public int advance(long nanos) {
+        Preconditions.checkArgument(nanos >= 0, "nanos must be non-negative");
+        synchronized (SYNC) {
+            pendingNanos += nanos;
+            int ticks = (int) Math.min(Integer.MAX_VALUE, pendingNanos / tickLength);
+            pendingNanos -= ticks * tickLength;
+            if (ticks > 0) {
+                tick(ticks);
+            }
+            return ticks;
+        }
+    }
+
+    /**
+     * Sets the length of a tick used by {@link #advance(long)}, 50 milliseconds by default
+     *
+     * @param nanos length of a tick in nanoseconds
+     * @return this
+     */
+    public @NotNull AnimationManager tickLength(long nanos) {
+        Preconditions.checkArgument(nanos > 0, "nanos must be positive");
+        synchronized (SYNC) {
+            this.tickLength = nanos;
+        }
+        return this;
+    }
+
+    /**
+     * Advances an animation to the due tick of its bucket, skipping idle ticks at once.
+     * Throttled buckets advance it by all elapsed ticks at once, so frames may collapse them
+     */
+    private static void advance(Animation animation, AnimationBucket bucket) {
+        long tick = bucket.dueTick;
+        int ticks = (int) (tick - animation.advancedTo);
+        if (ticks <= 0) {
+            // Woken after the last tick its bucket is due in
+            return;
+        }
+        animation.advancedTo = tick;
+        if (ticks == 1) {
+            if (!animation.isFinished()) {
+                animation.tick();
+            }
+            return;
+        }
+        if (bucket.collapse) {
+            if (!animation.isFinished()) {
+                animation.advance(ticks);
+            }
+            return;
+        }
+        while (ticks > 0 && !animation.isFinished()) {
+            int idle = Math.min(animation.idleTicks(), ticks);
+            if (idle > 0) {
+                animation.skip(idle);
+                ticks -= idle;
+            } else {
+                animation.tick();
+                ticks--;
+            }
+        }
+    }
+
+    /**
+     * Advances an animation, measuring the time spent in it
+     */
+    private static void sampledAdvance(Animation animation, AnimationBucket bucket) {
+        animation.sampledFrameType = animation.currentFrameType();
+        long start = System.nanoTime();
+        advance(animation, bucket);
+        animation.lastTickNanos = System.nanoTime() - start;
+        animation.sampledNanos += animation.lastTickNanos;
+    }
+
+    /**
+     * Enables or disables the metrics.
+     * <p>Every {@code sampleInterval}-th tick is sampled: the time spent in it is measured,
+     * together with the time spent in each animation, grouped by the type of its current frame.
+     * Other ticks only update the counters of finished and removed animations,
+     * so a larger interval lowers the overhead. Enabling the metrics again resets them.</p>
+     *
+     * @param sampleInterval every how many ticks the timings are recorded, 0 disables the metrics
+     * @return this
+     * @see #getMetrics()
+     */
+    public @NotNull AnimationManager metrics(int sampleInterval) {
+        Preconditions.checkArgument(sampleInterval >= 0, "sampleInterval must be non-negative");
+        synchronized (SYNC) {
+            this.metrics = sampleInterval == 0 ? null : new MetricsRecorder(sampleInterval);
+            for (AnimationBucket[] group : bucketGroups) {
+                for (AnimationBucket bucket : group) {
+                    for (Animation animation : bucket.animations) {
+                        animation.sampledNanos = 0;
                     }
                 }
-            } catch (ConcurrentModificationException ignored) {
-                // An animation may create another managed animation while being ticked.
-            } finally {
-                animations.removeAll(animationsToRemove);
-                animationsToRemove.clear();
             }
         }
+        return this;
     }
 
     /**
-     * Creates new animation which will be ticked
+     * Returns a snapshot of the metrics. Can be called from any thread, but it waits for the running tick
      *
-     * @return new animation
+     * @return metrics snapshot
+     * @throws IllegalStateException if the metrics are disabled
+     * @see #metrics(int)
      */
-    public Animation newAnimation() {
-        Animation animation = new Animation(this);
+    public @NotNull AnimationMetrics getMetrics() {
+        synchronized (SYNC) {
+            Preconditions.checkState(metrics != null, "metrics are disabled");
+            return metrics.snapshot(bucketGroups, parkedAnimations);
+        }
+    }
+
+    private void drainQueues() {
+        Animation animation;
+        while ((animation = animationsToAdd.poll()) != null) {
+            add(animation);
+        }
+        while ((animation = animationsToWake.poll()) != null) {
+            if (animation.blocked) {
+                unblock(animation);
+                add(animation);
+            }
+        }
+        while ((animation = animationsToRemove.poll()) != null) {
+            boolean parked = animation.parked;
+            if (animation.blocked) {
+                unblock(animation);
+            } else if (parked) {
+                animation.parked = false;
+                parkedAnimations--;
+            }
+            if ((remove(animation) || parked) && metrics != null) {
+                metrics.removedAnimations++;
+            }
+        }
+    }
+
+    private void add(Animation animation) {
+        if (animation.advancedTo < 0) {
+            // New animations start with the next tick
+            animation.advancedTo = currentTick;
+        }
+        AnimationBucket[] group = group(animation.getPriority(), tickDivisor(animation));
+        // The least loaded phase, so the work is spread evenly over the ticks
+        AnimationBucket bucket = group[0];
+        for (int i = 1; i < group.length; i++) {
+            if (group[i].animations.size() < bucket.animations.size()) {
+                bucket = group[i];
+            }
+        }
+        bucket.add(animation);
+    }
+
+    private AnimationBucket[] group(AnimationPriority priority, int divisor) {
+        int index = 0;
+        for (; index < bucketGroups.size(); index++) {
+            AnimationBucket first = bucketGroups.get(index)[0];
+            if (first.priority == priority && first.divisor == divisor) {
+                return bucketGroups.get(index);
+            }
+            if (first.priority.compareTo(priority) > 0 || first.priority == priority && first.divisor > divisor) {
+                break;
+            }
+        }
+        AnimationBucket[] group = new AnimationBucket[divisor];
+        for (int phase = 0; phase < divisor; phase++) {
+            group[phase] = new AnimationBucket(priority, divisor, phase);
+        }
+        bucketGroups.add(index, group);
+        return group;
+    }
+
+    private boolean remove(Animation animation) {
+        AnimationBucket bucket = animation.bucket;
+        return bucket != null && bucket.remove(animation);
+    }
+
+    /**
+     * @return amount of animations ticked by this manager, not counting parked ones
+     */
+    int activeAnimations() {
+        int active = 0;
+        for (AnimationBucket[] group : bucketGroups) {
+            for (AnimationBucket bucket : group) {
+                active += bucket.animations.size();
+            }
+        }
+        return active;
+    }
+
+    /**
+     * Enables the parallel mode.
+     * <p>In this mode animations marked with {@link Animation#threadSafe()} are split into shards
+     * which are ticked on the given pool, while the rest is ticked on the calling thread.
+     * Thread-safe animations may still stop themselves or create new animations.</p>
+     *
+     * @param pool   pool to tick thread-safe animations on
+     * @param shards amount of shards to split thread-safe animations into
+     * @return this
+     */
+    public @NotNull AnimationManager parallel(@NotNull ForkJoinPool pool, int shards) {
+        Preconditions.checkNotNull(pool, "pool cannot be null");
+        Preconditions.checkArgument(shards > 0, "shards must be positive");
+        synchronized (SYNC) {
+            this.pool = pool;
+            this.shards = shards;
+        }
+        return this;
+    }
+
+    /**
+     * Disables the parallel mode, all animations will be ticked on the calling thread
+     *
+     * @return this
+     */
+    public @NotNull AnimationManager sequential() {
+        synchronized (SYNC) {
+            this.pool = null;
+        }
+        return this;
+    }
+
+    private ForkJoinTask<?> forkConcurrentTick(boolean sampled) {
+        for (AnimationBucket[] group : bucketGroups) {
+            for (AnimationBucket bucket : group) {
+                if (bucket.dueTick < 0) {
+                    continue;
+                }
+                for (Animation animation : bucket.animations) {
+                    if (animation.isThreadSafe() && !animation.isFinished()) {
+                        animation.tickingConcurrently = true;
+                        concurrentAnimations.add(animation);
+                    }
+                }
+            }
+        }
+        int size = concurrentAnimations.size();
+        if (size == 0) {
+            return null;
+        }
+        int shardSize = (size + shards - 1) / shards;
+        return pool.submit(() -> {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(shards);
+            for (int from = 0; from < size; from += shardSize) {
+                int start = from;
+                int end = Math.min(size, from + shardSize);
+                tasks.add(ForkJoinTask.adapt(() -> {
+                    for (int i = start; i < end; i++) {
+                        Animation animation = concurrentAnimations.get(i);
+                        if (sampled) {
+                            sampledAdvance(animation, animation.bucket);
+                        } else {
+                            advance(animation, animation.bucket);
+                        }
+                    }
+                }));
+            }
+            ForkJoinTask.invokeAll(tasks);
+        });
+    }
+
+    private void joinConcurrentTick(ForkJoinTask<?> concurrentTick, boolean sampled) {
+        try {
+            concurrentTick.join();
+        } finally {
+            for (Animation animation : concurrentAnimations) {
+                animation.tickingConcurrently = false;
+                if (sampled) {
+                    metrics.recordAnimation(animation);
+                }
+                settle(animation);
+            }
+            concurrentAnimations.clear();
+        }
+    }
+
+    /**
+     * Enables pooling of finished animations.
+     * <p>Animations which finished while being ticked are reset and reused by {@link #newAnimation()},
+     * {@link #newAnimation(AnimationProgram)}, {@link #spawn(AnimationTemplate, Object)} and {@link #of()}.
+     * Animations running a program also keep their compiled frame and its state block, so spawning
+     * a template from the pool doesn't allocate at all.</p>
+     * <p>When pooling is enabled, references to an animation must not be used after it has finished,
+     * e.g. by {@link Animation#waitForCompletion(Animation...)}, as the object may already run another effect.</p>
+     *
+     * @param maxSize max amount of pooled animations, 0 disables pooling
+     * @return this
+     */
+    public @NotNull AnimationManager pooling(int maxSize) {
+        Preconditions.checkArgument(maxSize >= 0, "maxSize must be non-negative");
         synchronized (SYNC) {
-            animations.add(animation);
+            synchronized (animationPool) {
+                this.maxPooledAnimations = maxSize;
+                while (animationPool.size() > maxSize) {
+                    animationPool.pop();
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return amount of animations waiting in the pool
+     */
+    int pooledAnimations() {
+        synchronized (animationPool) {
+            return animationPool.size();
         }
+    }
+
+    private Animation obtain() {
+        synchronized (animationPool) {
+            Animation animation = animationPool.poll();
+            if (animation != null) {
+                return animation;
+            }
+        }
+        return new Animation(this);
+    }
+
+    private void retire(Animation animation) {
+        if (metrics != null && animation.isFinished()) {
+            metrics.finishedAnimations++;
+        }
+        if (maxPooledAnimations > 0 && animation.isFinished()) {
+            finishedAnimations.add(animation);
+        }
+    }
+
+    /**
+     * Moves animations finished during the tick into the pool.
+     * It's done after the queues are drained, so pending stop requests can't affect reused animations
+     */
+    private void releaseFinished() {
+        if (finishedAnimations.isEmpty()) {
+            return;
+        }
+        synchronized (animationPool) {
+            for (Animation animation : finishedAnimations) {
+                if (animationPool.size() >= maxPooledAnimations) {
+                    break;
+                }
+                animation.recycle();
+                animationPool.push(animation);
+            }
+        }
+        finishedAnimations.clear();
+    }
+
+    /**
+     * Enables or disables the timing wheel mode.
+     * <p>In this mode an animation which is only waiting, e.g. inside {@link Animation#sleep(int)}
+     * or between the runs of a delayed {@link Animation#repeat(int, int, Runnable)}, is parked
+     * in a hierarchical timing wheel and not ticked at all until its wake tick.
+     * The cost of a tick depends then only on the amount of active animations.</p>
+     * <p>Animations waiting for an event, e.g. in {@link Animation#awaitNotification(java.util.function.Consumer)}
+     * or {@link Animation#join(Animation...)}, are parked until the event in both modes.</p>
+     *
+     * @param enabled whether the timing wheel should be used
+     * @return this
+     * @see AbstractFrame#idleTicks()
+     */
+    public @NotNull AnimationManager timingWheel(boolean enabled) {
+        synchronized (SYNC) {
+            if (enabled && timingWheel == null) {
+                timingWheel = new TimingWheel();
+            } else if (!enabled && timingWheel != null) {
+                TimingWheel wheel = timingWheel;
+                timingWheel = null;
+                // Parked animations continue with the next tick, as if they were never parked
+                long nextTick = wheel.now() + 1;
+                wheel.drain(animation -> unpark(animation, nextTick));
+            }
+        }
+        return this;
+    }
+
+    private boolean park(Animation animation) {
+        if (animation.isFinished()) {
+            return false;
+        }
+        if (animation.wakeUp == null) {
+            animation.wakeUp = () -> animationsToWake.add(animation);
+        }
+        if (animation.awaitWakeUp(animation.wakeUp)) {
+            animation.parked = true;
+            animation.blocked = true;
+            // Drops a wheel entry left from an earlier parking
+            animation.wakeTick = -1;
+            parkedAnimations++;
+            blockedAnimations.add(animation);
+            return true;
+        }
+        if (timingWheel == null) {
+            return false;
+        }
+        int idleTicks = animation.idleTicks();
+        if (idleTicks <= 0) {
+            return false;
+        }
+        animation.parked = true;
+        parkedAnimations++;
+        animation.parkedAt = timingWheel.now();
+        animation.wakeTick = animation.parkedAt + idleTicks + 1;
+        timingWheel.schedule(animation);
+        return true;
+    }
+
+    /**
+     * Unparks an animation woken by an event, it continues with the next tick
+     */
+    private void unblock(Animation animation) {
+        animation.parked = false;
+        animation.blocked = false;
+        parkedAnimations--;
+        blockedAnimations.remove(animation);
+        animation.advancedTo = currentTick;
+    }
+
+    private void wake(Animation animation) {
+        // Stopped animations and entries left after re-parking are dropped here
+        if (animation.wakeTick == timingWheel.now()) {
+            unpark(animation, timingWheel.now());
+        }
+    }
+
+    private void unpark(Animation animation, long tick) {
+        if (!animation.parked || animation.blocked) {
+            return;
+        }
+        animation.parked = false;
+        parkedAnimations--;
+        animation.advancedTo = currentTick;
+        animation.skip((int) (tick - animation.parkedAt - 1));
+        add(animation);
+    }
+
+    /**
+     * Creates new animation which will be ticked, starting with the next tick.
+     * Can be called from any thread
+     *
+     * @return new animation
+     */
+    public Animation newAnimation() {
+        Animation animation = obtain();
+        animationsToAdd.add(animation);
+        return animation;
+    }
+
+    /**
+     * Creates new animation running given program, which will be ticked, starting with the next tick.
+     * Can be called from any thread
+     *
+     * @param program program to run
+     * @return new animation
+     * @see Animation#compile()
+     */
+    public @NotNull Animation newAnimation(@NotNull AnimationProgram program) {
+        Animation animation = of(program);
+        animationsToAdd.add(animation);
         return animation;
     }
 
@@ -61,18 +729,47 @@ public class AnimationManager {
      * @return new animation
      */
     public Animation of() {
-        return new Animation(this);
+        return obtain();
+    }
+
+    /**
+     * Creates new animation running given program, which won't be ticked
+     *
+     * @param program program to run
+     * @return new animation
+     */
+    public @NotNull Animation of(@NotNull AnimationProgram program) {
+        Preconditions.checkNotNull(program, "program cannot be null");
+        Animation animation = obtain();
+        animation.run(program, null);
+        return animation;
     }
 
     /**
-     * Stops animation
+     * Creates and starts new instance of a template.
+     * <p>The instance only allocates its own state, the frames are shared with all other instances.
+     * Can be called from any thread.</p>
+     *
+     * @param template template to spawn
+     * @param context  context passed to the actions of the template
+     * @param <C>      type of the context
+     * @return new animation
+     */
+    public <C> @NotNull Animation spawn(@NotNull AnimationTemplate<C> template, C context) {
+        Preconditions.checkNotNull(template, "template cannot be null");
+        Animation animation = obtain();
+        animation.run(template.getProgram(), context);
+        animationsToAdd.add(animation);
+        return animation;
+    }
+
+    /**
+     * Stops animation. Can be called from any thread
      *
      * @param animation animation to stop
      */
     public void stopAnimation(Animation animation) {
-        synchronized (SYNC) {
-            animationsToRemove.add(animation);
-        }
+        animationsToRemove.add(animation);
     }
 
     /**
@@ -80,8 +777,33 @@ public class AnimationManager {
      */
     public void dispose() {
         synchronized (SYNC) {
-            animations.forEach(Animation::stop);
-            animations.clear();
+            drainQueues();
+            if (timingWheel != null) {
+                timingWheel.drain(animation -> {
+                    if (animation.parked) {
+                        animation.parked = false;
+                        animation.stop();
+                    }
+                });
+            }
+            for (Animation animation : blockedAnimations) {
+                animation.parked = false;
+                animation.blocked = false;
+                animation.stop();
+            }
+            blockedAnimations.clear();
+            animationsToWake.clear();
+            parkedAnimations = 0;
+            for (AnimationBucket[] group : bucketGroups) {
+                for (AnimationBucket bucket : group) {
+                    for (Animation animation : bucket.animations) {
+                        animation.index = -1;
+                        animation.bucket = null;
+                        animation.stop();
+                    }
+                    bucket.animations.clear();
+                }
+            }
             animationsToRemove.clear();
         }
     }
@@ -0,0 +1,155 @@
+package me.pan_truskawka045.effects3d.animations;
+
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Snapshot of the metrics recorded by an {@link AnimationManager}.
+ * <p>Timings are only recorded in sampled ticks, so with a sample interval of {@code n}
+ * they cover every {@code n}-th tick. The counters of finished and removed animations
+ * cover all ticks since the metrics were enabled.</p>
+ *
+ * @see AnimationManager#metrics(int)
+ */
+@Getter
+public final class AnimationMetrics {
+
+    /**
+     * Every how many ticks the timings are recorded
+     */
+    private final int sampleInterval;
+    /**
+     * Amount of sampled ticks
+     */
+    private final long sampledTicks;
+    /**
+     * Total time spent in sampled ticks, in nanoseconds
+     */
+    private final long totalTickNanos;
+    /**
+     * Time spent in the slowest sampled tick, in nanoseconds
+     */
+    private final long maxTickNanos;
+    /**
+     * Time spent in the last sampled tick, in nanoseconds
+     */
+    private final long lastTickNanos;
+    /**
+     * Amount of animations ticked by the manager
+     */
+    private final int activeAnimations;
+    /**
+     * Amount of animations parked in the timing wheel or until an event, see {@link AnimationManager#timingWheel(boolean)}
+     */
+    private final int sleepingAnimations;
+    /**
+     * Amount of animations which have finished
+     */
+    private final long finishedAnimations;
+    /**
+     * Amount of animations removed by {@link AnimationManager#stopAnimation(Animation)}
+     */
+    private final long removedAnimations;
+    /**
+     * Amount of animations deferred by budgeted ticks, see {@link AnimationManager#tickBudgeted(long)}
+     */
+    private final long deferredAnimations;
+    /**
+     * Sampled ticks of animations grouped by the type of their current frame
+     */
+    private final Map<Class<? extends AbstractFrame>, FrameTypeStats> frameTypes;
+    /**
+     * Active animations which took the most time in sampled ticks, the slowest first
+     */
+    private final List<AnimationCost> slowestAnimations;
+
+    AnimationMetrics(int sampleInterval, long sampledTicks, long totalTickNanos, long maxTickNanos, long lastTickNanos,
+                     int activeAnimations, int sleepingAnimations, long finishedAnimations, long removedAnimations, long deferredAnimations,
+                     @NotNull Map<Class<? extends AbstractFrame>, FrameTypeStats> frameTypes, @NotNull List<AnimationCost> slowestAnimations) {
+        this.sampleInterval = sampleInterval;
+        this.sampledTicks = sampledTicks;
+        this.totalTickNanos = totalTickNanos;
+        this.maxTickNanos = maxTickNanos;
+        this.lastTickNanos = lastTickNanos;
+        this.activeAnimations = activeAnimations;
+        this.sleepingAnimations = sleepingAnimations;
+        this.finishedAnimations = finishedAnimations;
+        this.removedAnimations = removedAnimations;
+        this.deferredAnimations = deferredAnimations;
+        this.frameTypes = frameTypes;
+        this.slowestAnimations = slowestAnimations;
+    }
+
+    /**
+     * @return average time spent in a sampled tick, in nanoseconds
+     */
+    public long getAverageTickNanos() {
+        return sampledTicks == 0 ? 0 : totalTickNanos / sampledTicks;
+    }
+
+    /**
+     * Time spent in animations whose current frame was of one type
+     */
+    public static final class FrameTypeStats {
+
+        private final long ticks;
+        private final long nanos;
+
+        FrameTypeStats(long ticks, long nanos) {
+            this.ticks = ticks;
+            this.nanos = nanos;
+        }
+
+        /**
+         * @return amount of sampled animation ticks
+         */
+        public long getTicks() {
+            return ticks;
+        }
+
+        /**
+         * @return total time spent in the sampled animation ticks, in nanoseconds
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return "FrameTypeStats(ticks=" + ticks + ", nanos=" + nanos + ")";
+        }
+    }
+
+    /**
+     * Time spent in an animation
+     */
+    public static final class AnimationCost {
+
+        private final Animation animation;
+        private final long nanos;
+
+        AnimationCost(@NotNull Animation animation, long nanos) {
+            this.animation = animation;
+            this.nanos = nanos;
+        }
+
+        public @NotNull Animation getAnimation() {
+            return animation;
+        }
+
+        /**
+         * @return total time spent in sampled ticks of the animation, in nanoseconds
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return "AnimationCost(animation=" + animation + ", nanos=" + nanos + ")";
+        }
+    }
+}
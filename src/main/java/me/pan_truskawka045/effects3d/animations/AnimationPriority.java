@@ -0,0 +1,24 @@
+package me.pan_truskawka045.effects3d.animations;
+
+/**
+ * Priority of an animation, animations with a higher priority are ticked first
+ *
+ * @see Animation#priority(AnimationPriority)
+ * @see AnimationManager#tickBudgeted(long)
+ */
+public enum AnimationPriority {
+
+    /**
+     * Gameplay-relevant animations, never deferred by a budgeted tick
+     */
+    HIGH,
+    /**
+     * Default priority
+     */
+    NORMAL,
+    /**
+     * Cosmetic animations, deferred first when the tick budget is spent
+     */
+    LOW
+
+}
@@ -0,0 +1,111 @@
+package me.pan_truskawka045.effects3d.animations;
+
+import lombok.Getter;
+
+/**
+ * Immutable, compiled form of an {@link Animation}.
+ * <p>Frames are lowered into an {@code int[]} opcode stream with operands pointing into
+ * constant tables, so one program can be shared by any amount of running instances.
+ * Every instance only holds a cursor with a small state block.</p>
+ *
+ * @see Animation#compile()
+ * @see AnimationManager#newAnimation(AnimationProgram)
+ */
+public final class AnimationProgram {
+
+    static final int RUN = 0;
+    static final int SLEEP = 1;
+    static final int REPEAT = 2;
+    static final int EASE = 3;
+    static final int VALUE = 4;
+    static final int EASE_MULTIPLE = 5;
+    static final int FOR_EACH = 6;
+    static final int FINISH = 7;
+    static final int CONTINUE_IF = 8;
+    static final int RUN_WHILE = 9;
+    static final int RUN_IN_PARALLEL = 10;
+    static final int JOIN = 11;
+    static final int AWAIT_NOTIFICATION = 12;
+
+    /**
+     * Action receiving the context of the running animation, emitted by {@link AnimationTemplate}
+     */
+    interface ContextRunnable {
+        void run(Object context);
+    }
+
+    /**
+     * Value consumer receiving the context of the running animation, emitted by {@link AnimationTemplate}
+     */
+    interface ContextFloatConsumer {
+        void accept(Object context, float value);
+    }
+
+    /**
+     * Values consumer receiving the context of the running animation, emitted by {@link AnimationTemplate}
+     */
+    interface ContextArrayConsumer {
+        void accept(Object context, float[] values);
+    }
+
+    final int[] code;
+    final Object[] constants;
+    final float[] floatConstants;
+    final int intSlots;
+    final int floatSlots;
+    // Lengths of the arrays each instance allocates for buffered ease frames
+    final int[] bufferSizes;
+    /**
+     * Amount of instructions in the program
+     */
+    @Getter
+    private final int instructions;
+    @Getter
+    private final boolean looped;
+    @Getter
+    private final boolean threadSafe;
+
+    AnimationProgram(int[] code, Object[] constants, float[] floatConstants, int intSlots, int floatSlots,
+                     int[] bufferSizes, int instructions, boolean looped, boolean threadSafe) {
+        this.code = code;
+        this.constants = constants;
+        this.floatConstants = floatConstants;
+        this.intSlots = intSlots;
+        this.floatSlots = floatSlots;
+        this.bufferSizes = bufferSizes;
+        this.instructions = instructions;
+        this.looped = looped;
+        this.threadSafe = threadSafe;
+    }
+
+    /**
+     * @param opcode opcode of an instruction
+     * @return length of the instruction, including the opcode
+     */
+    static int length(int opcode) {
+        switch (opcode) {
+            case FINISH:
+                return 1;
+            case RUN:
+            case CONTINUE_IF:
+            case JOIN:
+                return 2;
+            case SLEEP:
+            case RUN_IN_PARALLEL:
+                return 3;
+            case AWAIT_NOTIFICATION:
+                return 4;
+            case REPEAT:
+            case FOR_EACH:
+            case RUN_WHILE:
+                return 5;
+            case VALUE:
+                return 6;
+            case EASE:
+            case EASE_MULTIPLE:
+                return 7;
+            default:
+                throw new IllegalArgumentException("Unknown opcode: " + opcode);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package me.pan_truskawka045.effects3d.animations;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import me.pan_truskawka045.effects3d.animations.values.EaseValue;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Animation built once and spawned many times.
+ * <p>Actions of a template receive the context the instance was spawned with, so the same
+ * frames can drive many effects at once, e.g. one per player. Every spawned instance only
+ * allocates its own state block.</p>
+ * <br>
+ * Example:
+ * <pre>
+ *         {@code
+ *         AnimationTemplate<Player> template = AnimationTemplate.<Player>builder()
+ *         .then(player -> player.sendMessage("Hello world!"))
+ *         .sleep(20)
+ *         .linearEaseFunction(0, 1, 20, 1, (player, value) -> spawnParticle(player, value))
+ *         .build();
+ *         manager.spawn(template, player);
+ *         }
+ *         </pre>
+ *
+ * @param <C> type of the context
+ * @see AnimationManager#spawn(AnimationTemplate, Object)
+ */
+public final class AnimationTemplate<C> {
+
+    @Getter
+    private final AnimationProgram program;
+
+    private AnimationTemplate(@NotNull AnimationProgram program) {
+        this.program = program;
+    }
+
+    /**
+     * Creates a template of an animation which doesn't use the context
+     *
+     * @param animation animation to compile
+     * @param <C>       type of the context
+     * @return new template
+     * @see Animation#compile()
+     */
+    public static <C> @NotNull AnimationTemplate<C> of(@NotNull Animation animation) {
+        Preconditions.checkNotNull(animation, "animation cannot be null");
+        return new AnimationTemplate<>(animation.compile());
+    }
+
+    /**
+     * Creates a template builder
+     *
+     * @param <C> type of the context
+     * @return new builder
+     */
+    public static <C> @NotNull Builder<C> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Consumer of a context and a float value
+     *
+     * @param <C> type of the context
+     */
+    @FunctionalInterface
+    public interface ValueConsumer<C> {
+
+        void accept(C context, float value);
+
+    }
+
+    public static final class Builder<C> {
+
+        private final ProgramBuilder builder = new ProgramBuilder(null);
+        private boolean looped;
+        private boolean threadSafe;
+
+        private Builder() {
+        }
+
+        /**
+         * Runs the action once
+         *
+         * @param action action to run
+         * @return this
+         */
+        @SuppressWarnings("unchecked")
+        public @NotNull Builder<C> then(@NotNull Consumer<C> action) {
+            Preconditions.checkNotNull(action, "action cannot be null");
+            builder.run(context -> action.accept((C) context));
+            return this;
+        }
+
+        /**
+         * Runs all frames of an animation which doesn't use the context
+         *
+         * @param animation animation to inline
+         * @return this
+         */
+        public @NotNull Builder<C> then(@NotNull Animation animation) {
+            Preconditions.checkNotNull(animation, "animation cannot be null");
+            animation.compile(builder);
+            return this;
+        }
+
+        /**
+         * Runs all frames of an animation which doesn't use the context, given amount of times.
+         * Unlike {@link Animation#repeatAnimation(int, Animation)}, every repetition has its own state
+         *
+         * @param times     amount of repetitions
+         * @param animation animation to inline
+         * @return this
+         */
+        public @NotNull Builder<C> repeatAnimation(int times, @NotNull Animation animation) {
+            Preconditions.checkArgument(times > 0, "times must be positive");
+            Preconditions.checkNotNull(animation, "animation cannot be null");
+            for (int i = 0; i < times; i++) {
+                animation.compile(builder);
+            }
+            return this;
+        }
+
+        /**
+         * Waits given amount of ticks
+         *
+         * @param ticks ticks to wait
+         * @return this
+         */
+        public @NotNull Builder<C> sleep(int ticks) {
+            Preconditions.checkArgument(ticks >= 0, "ticks must be non-negative");
+            builder.sleep(ticks);
+            return this;
+        }
+
+        /**
+         * Runs the action given amount of times
+         *
+         * @param times  amount of runs
+         * @param delay  ticks between the runs
+         * @param action action to run
+         * @return this
+         */
+        @SuppressWarnings("unchecked")
+        public @NotNull Builder<C> repeat(int times, int delay, @NotNull Consumer<C> action) {
+            Preconditions.checkArgument(times > 0, "times must be positive");
+            Preconditions.checkArgument(delay >= 0, "delay must be non-negative");
+            Preconditions.checkNotNull(action, "action cannot be null");
+            builder.repeat(times, delay, context -> action.accept((C) context));
+            return this;
+        }
+
+        /**
+         * Eases a value from start to end
+         *
+         * @param startValue   start value
+         * @param endValue     end value
+         * @param easeFunction ease function
+         * @param steps        amount of steps
+         * @param ticksPerStep ticks between the steps
+         * @param consumer     consumer of the context and the value
+         * @return this
+         */
+        @SuppressWarnings("unchecked")
+        public @NotNull Builder<C> easeFunction(float startValue, float endValue, @NotNull EaseFunction easeFunction, int steps, int ticksPerStep, @NotNull ValueConsumer<C> consumer) {
+            Preconditions.checkNotNull(easeFunction, "easeFunction cannot be null");
+            Preconditions.checkArgument(steps > 0, "steps must be positive");
+            Preconditions.checkArgument(ticksPerStep > 0, "ticksPerStep must be positive");
+            Preconditions.checkNotNull(consumer, "consumer cannot be null");
+            builder.easeFunction(startValue, endValue, easeFunction, steps, ticksPerStep, (context, value) -> consumer.accept((C) context, value));
+            return this;
+        }
+
+        /**
+         * Eases a value linearly from start to end
+         *
+         * @see #easeFunction(float, float, EaseFunction, int, int, ValueConsumer)
+         */
+        public @NotNull Builder<C> linearEaseFunction(float startValue, float endValue, int steps, int ticksPerStep, @NotNull ValueConsumer<C> consumer) {
+            return easeFunction(startValue, endValue, EaseFunctions.LINEAR, steps, ticksPerStep, consumer);
+        }
+
+        /**
+         * Eases multiple values at once
+         *
+         * @param steps        amount of steps
+         * @param ticksPerStep ticks between the steps
+         * @param consumer     consumer of the context and the values
+         * @param easeValues   values to ease
+         * @return this
+         */
+        @SuppressWarnings("unchecked")
+        public @NotNull Builder<C> easeFunctions(int steps, int ticksPerStep, @NotNull BiConsumer<C, float[]> consumer, @NotNull EaseValue... easeValues) {
+            Preconditions.checkArgument(steps > 0, "steps must be positive");
+            Preconditions.checkArgument(ticksPerStep > 0, "ticksPerStep must be positive");
+            Preconditions.checkNotNull(consumer, "consumer cannot be null");
+            Preconditions.checkNotNull(easeValues, "easeValues cannot be null");
+            builder.easeFunctions(easeValues.clone(), (context, values) -> consumer.accept((C) context, values), steps, ticksPerStep);
+            return this;
+        }
+
+        /**
+         * Stops the instance unless the condition is met
+         *
+         * @param condition condition tested against the context
+         * @return this
+         */
+        public @NotNull Builder<C> continueIf(@NotNull Predicate<C> condition) {
+            Preconditions.checkNotNull(condition, "condition cannot be null");
+            builder.continueIf(animation -> condition.test(animation.getContext()));
+            return this;
+        }
+
+        /**
+         * Runs the action until the condition is met
+         *
+         * @param delay     ticks between the runs
+         * @param action    action to run
+         * @param condition condition tested against the context
+         * @return this
+         */
+        @SuppressWarnings("unchecked")
+        public @NotNull Builder<C> runWhile(int delay, @NotNull Consumer<C> action, @NotNull Predicate<C> condition) {
+            Preconditions.checkArgument(delay >= 0, "delay must be non-negative");
+            Preconditions.checkNotNull(action, "action cannot be null");
+            Preconditions.checkNotNull(condition, "condition cannot be null");
+            builder.runWhile(delay, context -> action.accept((C) context), animation -> condition.test(animation.getContext()));
+            return this;
+        }
+
+        /**
+         * Stops the instance
+         *
+         * @return this
+         */
+        public @NotNull Builder<C> finish() {
+            builder.finish();
+            return this;
+        }
+
+        /**
+         * Makes the instances restart after the last frame
+         *
+         * @return this
+         */
+        public @NotNull Builder<C> looped() {
+            this.looped = true;
+            return this;
+        }
+
+        /**
+         * Marks the instances as thread safe, see {@link Animation#threadSafe()}
+         *
+         * @return this
+         */
+        public @NotNull Builder<C> threadSafe() {
+            this.threadSafe = true;
+            return this;
+        }
+
+        /**
+         * Builds the template. The builder shouldn't be used afterwards
+         *
+         * @return new template
+         */
+        public @NotNull AnimationTemplate<C> build() {
+            return new AnimationTemplate<>(builder.build(looped, threadSafe));
+        }
+    }
+}
@@ -1,7 +1,26 @@
 package me.pan_truskawka045.effects3d.animations;
 
+import org.jetbrains.annotations.NotNull;
+
 public interface EaseFunction {
 
     float ease(float f);
 
+    /**
+     * Eases a range of progress values at once, {@code out[i] = ease(progress[i])} for {@code from <= i < to}.
+     * <p>Built-in functions override it with plain loops, which avoid a call per value.
+     * The arrays may be the same array.</p>
+     *
+     * @param progress progress values
+     * @param out      array to write eased values into
+     * @param from     first index, inclusive
+     * @param to       last index, exclusive
+     */
+    default void easeInto(@NotNull float[] progress, @NotNull float[] out, int from, int to) {
+        EaseFunctions.checkRange(progress, out, from, to);
+        for (int i = from; i < to; i++) {
+            out[i] = ease(progress[i]);
+        }
+    }
+
 }
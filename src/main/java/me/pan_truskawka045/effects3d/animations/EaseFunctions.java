@@ -1,5 +1,8 @@
 package me.pan_truskawka045.effects3d.animations;
 
+import com.google.common.base.Preconditions;
+import org.jetbrains.annotations.NotNull;
+
 public class EaseFunctions {
 
 
@@ -8,34 +11,99 @@ public class EaseFunctions {
      * Defined by:
      * <pre>f(x) = x</pre>
      */
-    public static final EaseFunction LINEAR = f -> f;
+    public static final EaseFunction LINEAR = new EaseFunction() {
+        @Override
+        public float ease(float f) {
+            return f;
+        }
+
+        @Override
+        public void easeInto(@NotNull float[] progress, @NotNull float[] out, int from, int to) {
+            checkRange(progress, out, from, to);
+            System.arraycopy(progress, from, out, from, to - from);
+        }
+    };
     /**
      * Quadratic ease-in function
      * Defined by:
      * <pre>f(x) = x^2</pre>
      */
-    public static final EaseFunction EASE_IN = f -> f * f;
+    public static final EaseFunction EASE_IN = new EaseFunction() {
+        @Override
+        public float ease(float f) {
+            return f * f;
+        }
+
+        @Override
+        public void easeInto(@NotNull float[] progress, @NotNull float[] out, int from, int to) {
+            checkRange(progress, out, from, to);
+            for (int i = from; i < to; i++) {
+                float f = progress[i];
+                out[i] = f * f;
+            }
+        }
+    };
     /**
      * Quadratic ease-out function
      * Defined by:
      * <pre>f(x) = x(2 - x)</pre>
      */
-    public static final EaseFunction EASE_OUT = f -> f * (2 - f);
+    public static final EaseFunction EASE_OUT = new EaseFunction() {
+        @Override
+        public float ease(float f) {
+            return f * (2 - f);
+        }
+
+        @Override
+        public void easeInto(@NotNull float[] progress, @NotNull float[] out, int from, int to) {
+            checkRange(progress, out, from, to);
+            for (int i = from; i < to; i++) {
+                float f = progress[i];
+                out[i] = f * (2 - f);
+            }
+        }
+    };
     /**
      * Cubic ease-in function
      * Defined by:
      * <pre>f(x) = x^3</pre>
      */
-    public static final EaseFunction CUBIC_IN = f -> f * f * f;
+    public static final EaseFunction CUBIC_IN = new EaseFunction() {
+        @Override
+        public float ease(float f) {
+            return f * f * f;
+        }
+
+        @Override
+        public void easeInto(@NotNull float[] progress, @NotNull float[] out, int from, int to) {
+            checkRange(progress, out, from, to);
+            for (int i = from; i < to; i++) {
+                float f = progress[i];
+                out[i] = f * f * f;
+            }
+        }
+    };
 
     /**
      * Cubic ease-out function
      * Defined by:
      * <pre>f(x) = (--f) * f * f + 1</pre>
      */
-    public static final EaseFunction CUBIC_OUT = f -> {
-        float t = f - 1;
-        return t * t * t + 1;
+    public static final EaseFunction CUBIC_OUT = new EaseFunction() {
+        @Override
+        public float ease(float f) {
+            float t = f - 1;
+            return t * t * t + 1;
+        }
+
+        @Override
+        public void easeInto(@NotNull float[] progress, @NotNull float[] out, int from, int to) {
+            checkRange(progress, out, from, to);
+            for (int i = from; i < to; i++) {
+                float t = progress[i] - 1;
+                out[i] = t * t * t + 1;
+            }
+        }
     };
 
     /**
@@ -43,14 +111,61 @@ public class EaseFunctions {
      * Defined by:
      * <pre>f(x) = 1 - cos((x * PI) / 2)</pre>
      */
-    public static final EaseFunction SINE_IN = f -> (float)(1 - Math.cos((f * Math.PI) / 2));
+    public static final EaseFunction SINE_IN = new EaseFunction() {
+        @Override
+        public float ease(float f) {
+            return (float) (1 - Math.cos((f * Math.PI) / 2));
+        }
+
+        @Override
+        public void easeInto(@NotNull float[] progress, @NotNull float[] out, int from, int to) {
+            checkRange(progress, out, from, to);
+            for (int i = from; i < to; i++) {
+                out[i] = (float) (1 - Math.cos((progress[i] * Math.PI) / 2));
+            }
+        }
+    };
 
     /**
      * Sine ease-out function
      * Defined by:
      * <pre>f(x) = sin((x * PI) / 2)</pre>
      */
-    public static final EaseFunction SINE_OUT = f -> (float)Math.sin((f * Math.PI) / 2);
+    public static final EaseFunction SINE_OUT = new EaseFunction() {
+        @Override
+        public float ease(float f) {
+            return (float) Math.sin((f * Math.PI) / 2);
+        }
+
+        @Override
+        public void easeInto(@NotNull float[] progress, @NotNull float[] out, int from, int to) {
+            checkRange(progress, out, from, to);
+            for (int i = from; i < to; i++) {
+                out[i] = (float) Math.sin((progress[i] * Math.PI) / 2);
+            }
+        }
+    };
+
+    /**
+     * Samples an ease function into a lookup table.
+     * <p>The returned function interpolates linearly between {@code resolution + 1} evenly spaced samples,
+     * so its cost per evaluation is constant. The max error against the source function is reported by
+     * {@link TabulatedEaseFunction#getMaxError()}; for smooth functions it shrinks quadratically
+     * with the resolution.</p>
+     *
+     * @param function   function to sample
+     * @param resolution amount of intervals between the samples
+     * @return tabulated function
+     */
+    public static @NotNull TabulatedEaseFunction tabulate(@NotNull EaseFunction function, int resolution) {
+        return new TabulatedEaseFunction(function, resolution);
+    }
 
+    static void checkRange(float[] progress, float[] out, int from, int to) {
+        Preconditions.checkNotNull(progress, "progress cannot be null");
+        Preconditions.checkNotNull(out, "out cannot be null");
+        Preconditions.checkPositionIndexes(from, to, progress.length);
+        Preconditions.checkPositionIndexes(from, to, out.length);
+    }
 
 }
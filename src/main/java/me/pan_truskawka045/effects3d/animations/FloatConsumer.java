@@ -0,0 +1,35 @@
+package me.pan_truskawka045.effects3d.animations;
+
+import com.google.common.base.Preconditions;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Consumer;
+
+/**
+ * Consumer of primitive float values, used by value frames to pass values without boxing.
+ * <p>It is also a {@code Consumer<Float>}, so it can be passed wherever a boxed consumer is expected.</p>
+ */
+@FunctionalInterface
+public interface FloatConsumer extends Consumer<Float> {
+
+    void accept(float value);
+
+    @Override
+    default void accept(Float value) {
+        accept(value.floatValue());
+    }
+
+    /**
+     * Adapts a boxed consumer
+     *
+     * @param consumer consumer to adapt
+     * @return given consumer if it already is a {@link FloatConsumer}, otherwise a consumer boxing each value
+     */
+    static @NotNull FloatConsumer of(@NotNull Consumer<Float> consumer) {
+        Preconditions.checkNotNull(consumer, "consumer cannot be null");
+        if (consumer instanceof FloatConsumer) {
+            return (FloatConsumer) consumer;
+        }
+        return consumer::accept;
+    }
+}
@@ -0,0 +1,85 @@
+package me.pan_truskawka045.effects3d.animations;
+
+import java.util.*;
+
+/**
+ * Collects the metrics of an {@link AnimationManager}, only used by the ticking thread
+ */
+final class MetricsRecorder {
+
+    private static final int SLOWEST_ANIMATIONS = 10;
+
+    private final int sampleInterval;
+    private long ticks;
+    private long sampledTicks;
+    private long totalTickNanos;
+    private long maxTickNanos;
+    private long lastTickNanos;
+    long finishedAnimations;
+    long removedAnimations;
+    long deferredAnimations;
+    // Sampled ticks and nanos of each frame type
+    private final Map<Class<? extends AbstractFrame>, long[]> frameTypes = new HashMap<>();
+
+    MetricsRecorder(int sampleInterval) {
+        this.sampleInterval = sampleInterval;
+    }
+
+    /**
+     * @return true if the starting tick should be sampled
+     */
+    boolean sampleTick() {
+        return ticks++ % sampleInterval == 0;
+    }
+
+    void recordTick(long nanos) {
+        sampledTicks++;
+        totalTickNanos += nanos;
+        maxTickNanos = Math.max(maxTickNanos, nanos);
+        lastTickNanos = nanos;
+    }
+
+    void recordAnimation(Animation animation) {
+        long[] stats = frameTypes.get(animation.sampledFrameType);
+        if (stats == null) {
+            stats = new long[2];
+            frameTypes.put(animation.sampledFrameType, stats);
+        }
+        stats[0]++;
+        stats[1] += animation.lastTickNanos;
+    }
+
+    AnimationMetrics snapshot(List<AnimationBucket[]> bucketGroups, int sleepingAnimations) {
+        Map<Class<? extends AbstractFrame>, AnimationMetrics.FrameTypeStats> types = new HashMap<>();
+        for (Map.Entry<Class<? extends AbstractFrame>, long[]> entry : frameTypes.entrySet()) {
+            types.put(entry.getKey(), new AnimationMetrics.FrameTypeStats(entry.getValue()[0], entry.getValue()[1]));
+        }
+        // Keeps the slowest animations, with the fastest of them on top
+        PriorityQueue<Animation> slowest = new PriorityQueue<>(SLOWEST_ANIMATIONS + 1, Comparator.comparingLong(animation -> animation.sampledNanos));
+        int activeAnimations = 0;
+        for (AnimationBucket[] group : bucketGroups) {
+            for (AnimationBucket bucket : group) {
+                activeAnimations += bucket.animations.size();
+                for (Animation animation : bucket.animations) {
+                    if (animation.sampledNanos == 0) {
+                        continue;
+                    }
+                    if (slowest.size() < SLOWEST_ANIMATIONS) {
+                        slowest.add(animation);
+                    } else if (animation.sampledNanos > slowest.peek().sampledNanos) {
+                        slowest.poll();
+                        slowest.add(animation);
+                    }
+                }
+            }
+        }
+        AnimationMetrics.AnimationCost[] costs = new AnimationMetrics.AnimationCost[slowest.size()];
+        for (int i = costs.length - 1; i >= 0; i--) {
+            Animation animation = slowest.poll();
+            costs[i] = new AnimationMetrics.AnimationCost(animation, animation.sampledNanos);
+        }
+        return new AnimationMetrics(sampleInterval, sampledTicks, totalTickNanos, maxTickNanos, lastTickNanos,
+                activeAnimations, sleepingAnimations, finishedAnimations, removedAnimations, deferredAnimations,
+                Collections.unmodifiableMap(types), Collections.unmodifiableList(Arrays.asList(costs)));
+    }
+}
@@ -0,0 +1,229 @@
+package me.pan_truskawka045.effects3d.animations;
+
+import com.google.common.base.Preconditions;
+import me.pan_truskawka045.effects3d.animations.frames.AwaitNotifyAnimationFrame;
+import me.pan_truskawka045.effects3d.animations.values.EaseValue;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static me.pan_truskawka045.effects3d.animations.AnimationProgram.*;
+
+/**
+ * Collects instructions of an {@link AnimationProgram}, frames emit themselves into it
+ * in {@link AbstractFrame#compile(ProgramBuilder)}
+ */
+public final class ProgramBuilder {
+
+    private final @Nullable Animation animation;
+    private int[] code = new int[32];
+    private int size;
+    private int instructions;
+    private final List<Object> constants = new ArrayList<>();
+    private float[] floatConstants = new float[8];
+    private int floatConstantsSize;
+    private int intSlots;
+    private int floatSlots;
+    private int[] bufferSizes = new int[0];
+
+    /**
+     * @param animation animation being compiled, which frames may refer to, or null when building a template
+     */
+    ProgramBuilder(@Nullable Animation animation) {
+        this.animation = animation;
+    }
+
+    /**
+     * Emits all frames of an animation.
+     * The animation must not be started, looped, nor have any parallel animations
+     *
+     * @param animation animation to inline
+     */
+    void inline(@NotNull Animation animation) {
+        animation.emitFrames(this);
+    }
+
+    AnimationProgram build(boolean looped, boolean threadSafe) {
+        return new AnimationProgram(Arrays.copyOf(code, size), constants.toArray(),
+                Arrays.copyOf(floatConstants, floatConstantsSize), intSlots, floatSlots, bufferSizes, instructions, looped, threadSafe);
+    }
+
+    /**
+     * Emits a frame running given runnable once
+     */
+    public void run(@NotNull Runnable runnable) {
+        emit(RUN, constant(runnable));
+    }
+
+    /**
+     * Emits a frame waiting given amount of ticks
+     */
+    public void sleep(int ticks) {
+        emit(SLEEP, ticks, intSlots(1));
+    }
+
+    /**
+     * Emits a frame running given runnable given amount of times
+     */
+    public void repeat(int times, int delay, @NotNull Runnable runnable) {
+        emit(REPEAT, times, delay, constant(runnable), intSlots(2));
+    }
+
+    /**
+     * Emits a frame easing a value
+     */
+    public void easeFunction(float startValue, float endValue, @NotNull EaseFunction easeFunction, int steps, int ticksPerStep, @NotNull FloatConsumer consumer) {
+        emit(EASE, constant(easeFunction), constant(consumer), floatConstants(startValue, endValue), steps, ticksPerStep, intSlots(2));
+    }
+
+    /**
+     * Emits a frame changing a value by a max step until it reaches the target
+     */
+    public void untilValue(float startValue, float target, float maxStep, @NotNull FloatConsumer consumer, int ticksBetween) {
+        emit(VALUE, floatConstants(startValue, target, maxStep), constant(consumer), ticksBetween, intSlots(1), floatSlots(1));
+    }
+
+    /**
+     * Emits a frame easing multiple values at once.
+     * The buffer isn't shared by the instances, each of them writes into an array of its own
+     */
+    public void easeFunctions(@NotNull EaseValue[] easeValues, @NotNull Consumer<float[]> consumer, int steps, int ticksPerStep, @Nullable float[] buffer) {
+        emit(EASE_MULTIPLE, constant(easeValues), constant(consumer), buffer == null ? -1 : buffer(easeValues.length), steps, ticksPerStep, intSlots(2));
+    }
+
+    /**
+     * Emits a frame iterating over a list
+     */
+    public <T> void forEach(@NotNull List<T> list, @NotNull Consumer<T> consumer, int ticksPerStep) {
+        emit(FOR_EACH, constant(list), constant(consumer), ticksPerStep, intSlots(2));
+    }
+
+    /**
+     * Emits a frame stopping the animation
+     */
+    public void finish(@NotNull Animation animation) {
+        checkAnimation(animation);
+        emit(FINISH);
+    }
+
+    /**
+     * Emits a frame stopping the animation unless the condition is met
+     */
+    public void continueIf(@NotNull Animation animation, @NotNull Predicate<Animation> condition) {
+        checkAnimation(animation);
+        emit(CONTINUE_IF, constant(condition));
+    }
+
+    /**
+     * Emits a frame running given runnable until the condition is met
+     */
+    public void runWhile(@NotNull Animation animation, int delay, @NotNull Runnable runnable, @NotNull Predicate<Animation> condition) {
+        checkAnimation(animation);
+        emit(RUN_WHILE, delay, constant(runnable), constant(condition), intSlots(1));
+    }
+
+    /**
+     * Emits a frame starting a compiled copy of given animation in parallel
+     */
+    public void runInParallel(@NotNull Animation animation, @NotNull String name, @NotNull Animation parallelAnimation) {
+        checkAnimation(animation);
+        emit(RUN_IN_PARALLEL, constant(parallelAnimation.compile()), constant(name));
+    }
+
+    /**
+     * Emits a frame waiting for the named parallel animations
+     */
+    public void join(@NotNull Animation animation, @NotNull Set<String> names) {
+        checkAnimation(animation);
+        emit(JOIN, constant(names));
+    }
+
+    /**
+     * Emits a frame waiting for a notification
+     */
+    public void awaitNotification(@NotNull Consumer<AwaitNotifyAnimationFrame.AwaitNotifyListener> listener, int timeout) {
+        emit(AWAIT_NOTIFICATION, constant(listener), timeout, intSlots(3));
+    }
+
+    void run(@NotNull ContextRunnable action) {
+        emit(RUN, constant(action));
+    }
+
+    void repeat(int times, int delay, @NotNull ContextRunnable action) {
+        emit(REPEAT, times, delay, constant(action), intSlots(2));
+    }
+
+    void easeFunction(float startValue, float endValue, @NotNull EaseFunction easeFunction, int steps, int ticksPerStep, @NotNull ContextFloatConsumer consumer) {
+        emit(EASE, constant(easeFunction), constant(consumer), floatConstants(startValue, endValue), steps, ticksPerStep, intSlots(2));
+    }
+
+    void easeFunctions(@NotNull EaseValue[] easeValues, @NotNull ContextArrayConsumer consumer, int steps, int ticksPerStep) {
+        emit(EASE_MULTIPLE, constant(easeValues), constant(consumer), -1, steps, ticksPerStep, intSlots(2));
+    }
+
+    void finish() {
+        emit(FINISH);
+    }
+
+    void continueIf(@NotNull Predicate<Animation> condition) {
+        emit(CONTINUE_IF, constant(condition));
+    }
+
+    void runWhile(int delay, @NotNull ContextRunnable action, @NotNull Predicate<Animation> condition) {
+        emit(RUN_WHILE, delay, constant(action), constant(condition), intSlots(1));
+    }
+
+    private void checkAnimation(Animation animation) {
+        Preconditions.checkState(animation == this.animation, "frames referring to another animation cannot be compiled");
+    }
+
+    private void emit(int opcode, int... operands) {
+        if (size + operands.length + 1 > code.length) {
+            code = Arrays.copyOf(code, Math.max(code.length * 2, size + operands.length + 1));
+        }
+        code[size++] = opcode;
+        System.arraycopy(operands, 0, code, size, operands.length);
+        size += operands.length;
+        instructions++;
+    }
+
+    private int constant(Object constant) {
+        constants.add(constant);
+        return constants.size() - 1;
+    }
+
+    private int floatConstants(float... values) {
+        if (floatConstantsSize + values.length > floatConstants.length) {
+            floatConstants = Arrays.copyOf(floatConstants, Math.max(floatConstants.length * 2, floatConstantsSize + values.length));
+        }
+        int index = floatConstantsSize;
+        System.arraycopy(values, 0, floatConstants, index, values.length);
+        floatConstantsSize += values.length;
+        return index;
+    }
+
+    private int intSlots(int count) {
+        int index = intSlots;
+        intSlots += count;
+        return index;
+    }
+
+    private int floatSlots(int count) {
+        int index = floatSlots;
+        floatSlots += count;
+        return index;
+    }
+
+    private int buffer(int length) {
+        int index = bufferSizes.length;
+        bufferSizes = Arrays.copyOf(bufferSizes, index + 1);
+        bufferSizes[index] = length;
+        return index;
+    }
+}
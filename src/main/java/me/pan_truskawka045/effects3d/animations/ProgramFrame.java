@@ -0,0 +1,429 @@
+package me.pan_truskawka045.effects3d.animations;
+
+import me.pan_truskawka045.effects3d.animations.frames.AwaitNotifyAnimationFrame;
+import me.pan_truskawka045.effects3d.animations.values.EaseValue;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static me.pan_truskawka045.effects3d.animations.AnimationProgram.*;
+
+/**
+ * Cursor executing an {@link AnimationProgram}.
+ * <p>Each instruction behaves like the frame it was compiled from,
+ * the mutable state of all instructions is kept in two small arrays and the buffers of buffered eases.</p>
+ */
+final class ProgramFrame extends AbstractFrame {
+
+    private final Animation animation;
+    private final AnimationManager manager;
+    private AnimationProgram program;
+    private Object context;
+    private int[] state;
+    private float[] floatState;
+    // Arrays of buffered ease frames, owned by this instance so it doesn't write into arrays of others
+    private float[][] buffers;
+    private int pc;
+    private int generation;
+    // Wake up action of a parked animation, guarded by this frame together with the notification flags
+    private Runnable wakeUp;
+
+    ProgramFrame(AnimationProgram program, Animation animation, AnimationManager manager, Object context) {
+        this.animation = animation;
+        this.manager = manager;
+        this.state = new int[program.intSlots];
+        this.floatState = new float[program.floatSlots];
+        init(program, context);
+    }
+
+    /**
+     * Reinitializes a recycled frame to run given program, the state arrays and buffers are reused when they fit
+     */
+    void init(AnimationProgram program, Object context) {
+        this.program = program;
+        this.context = context;
+        if (state.length < program.intSlots) {
+            state = new int[program.intSlots];
+        }
+        if (floatState.length < program.floatSlots) {
+            floatState = new float[program.floatSlots];
+        }
+        int[] bufferSizes = program.bufferSizes;
+        if (buffers == null || buffers.length < bufferSizes.length) {
+            buffers = new float[bufferSizes.length][];
+        }
+        for (int i = 0; i < bufferSizes.length; i++) {
+            if (buffers[i] == null || buffers[i].length != bufferSizes[i]) {
+                buffers[i] = new float[bufferSizes[i]];
+            }
+        }
+        // Listeners handed out before recycling must not notify or wake up the new instance
+        synchronized (this) {
+            generation++;
+            wakeUp = null;
+        }
+    }
+
+    @Override
+    public void tick() {
+        int[] code = program.code;
+        if (pc >= code.length) {
+            return;
+        }
+        if (execute(code, pc)) {
+            pc += AnimationProgram.length(code[pc]);
+            enter(code, pc);
+        }
+    }
+
+    @Override
+    public boolean isFinished() {
+        return pc >= program.code.length;
+    }
+
+    @Override
+    public void reset() {
+        pc = 0;
+        enter(program.code, pc);
+    }
+
+    @Override
+    public int idleTicks() {
+        int[] code = program.code;
+        if (pc >= code.length) {
+            return 0;
+        }
+        switch (code[pc]) {
+            case SLEEP:
+                return Math.max(0, state[code[pc + 2]] - 1);
+            case REPEAT:
+                return Math.max(0, code[pc + 2] - state[code[pc + 4] + 1]);
+            case EASE:
+            case EASE_MULTIPLE:
+                return code[pc + 5] - 1 - state[code[pc + 6] + 1] % code[pc + 5];
+            case VALUE:
+                if (floatState[code[pc + 5]] == program.floatConstants[code[pc + 1] + 1]) {
+                    return 0;
+                }
+                return code[pc + 3] - 1 - state[code[pc + 4]] % code[pc + 3];
+            case FOR_EACH:
+                return code[pc + 3] - 1 - state[code[pc + 4] + 1] % code[pc + 3];
+            default:
+                return 0;
+        }
+    }
+
+    @Override
+    public boolean awaitWakeUp(@NotNull Runnable wakeUp) {
+        int[] code = program.code;
+        if (pc >= code.length) {
+            return false;
+        }
+        switch (code[pc]) {
+            case JOIN:
+                // Parallel animations are checked by the animation, see JoinAnimationsFrame
+                return !execute(code, pc);
+            case AWAIT_NOTIFICATION: {
+                int slot = code[pc + 3];
+                if (code[pc + 2] > 0 || state[slot + 1] == 0) {
+                    return false;
+                }
+                synchronized (this) {
+                    this.wakeUp = wakeUp;
+                    return state[slot] == 0;
+                }
+            }
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public void skip(int ticks) {
+        int[] code = program.code;
+        if (pc >= code.length) {
+            return;
+        }
+        switch (code[pc]) {
+            case SLEEP:
+                state[code[pc + 2]] -= ticks;
+                break;
+            case REPEAT:
+                state[code[pc + 4] + 1] += ticks;
+                break;
+            case EASE:
+            case EASE_MULTIPLE:
+                state[code[pc + 6] + 1] += ticks;
+                break;
+            case VALUE:
+                state[code[pc + 4]] += ticks;
+                break;
+            case FOR_EACH:
+                state[code[pc + 4] + 1] += ticks;
+                break;
+        }
+    }
+
+    @Override
+    public int advance(int ticks) {
+        int[] code = program.code;
+        int left = ticks;
+        while (left > 0 && pc < code.length) {
+            if (code[pc] == RUN_IN_PARALLEL || code[pc] == JOIN) {
+                // Parallel animations are advanced by the animation by the used ticks, so they catch up before and after
+                if (left == ticks) {
+                    tick();
+                    left--;
+                }
+                break;
+            }
+            if (code[pc] == EASE || code[pc] == EASE_MULTIPLE) {
+                int slot = code[pc + 6];
+                int ticksPerStep = code[pc + 5];
+                int offset = state[slot + 1] % ticksPerStep;
+                int crossed = Math.min((offset + left) / ticksPerStep, code[pc + 4] - state[slot]);
+                if (crossed > 1) {
+                    // Only the latest of the crossed steps is executed, like in EaseFunctionFrame
+                    int used = crossed * ticksPerStep - offset;
+                    state[slot] += crossed - 1;
+                    state[slot + 1] += used - 1;
+                    tick();
+                    left -= used;
+                    continue;
+                }
+            }
+            int idle = Math.min(idleTicks(), left);
+            if (idle > 0) {
+                skip(idle);
+                left -= idle;
+            } else {
+                tick();
+                left--;
+            }
+        }
+        return ticks - left;
+    }
+
+    /**
+     * Initializes the state of the instruction at given position, like {@link AbstractFrame#reset()}
+     */
+    private void enter(int[] code, int pc) {
+        if (pc >= code.length) {
+            return;
+        }
+        switch (code[pc]) {
+            case SLEEP:
+                state[code[pc + 2]] = code[pc + 1];
+                break;
+            case REPEAT: {
+                int slot = code[pc + 4];
+                state[slot] = code[pc + 1];
+                state[slot + 1] = 0;
+                break;
+            }
+            case EASE:
+            case EASE_MULTIPLE: {
+                int slot = code[pc + 6];
+                state[slot] = 0;
+                state[slot + 1] = 0;
+                break;
+            }
+            case VALUE:
+                state[code[pc + 4]] = 0;
+                floatState[code[pc + 5]] = program.floatConstants[code[pc + 1]];
+                break;
+            case FOR_EACH: {
+                int slot = code[pc + 4];
+                state[slot] = 0;
+                state[slot + 1] = 0;
+                break;
+            }
+            case RUN_WHILE:
+                state[code[pc + 4]] = 0;
+                break;
+            case AWAIT_NOTIFICATION: {
+                int slot = code[pc + 3];
+                synchronized (this) {
+                    state[slot] = 0;
+                }
+                state[slot + 1] = 0;
+                state[slot + 2] = 0;
+                break;
+            }
+        }
+    }
+
+    /**
+     * Ticks the instruction at given position
+     *
+     * @return true if the instruction is finished
+     */
+    @SuppressWarnings("unchecked")
+    private boolean execute(int[] code, int pc) {
+        Object[] constants = program.constants;
+        switch (code[pc]) {
+            case RUN:
+                run(constants[code[pc + 1]]);
+                return true;
+            case SLEEP:
+                return --state[code[pc + 2]] <= 0;
+            case REPEAT: {
+                int slot = code[pc + 4];
+                if (state[slot + 1] >= code[pc + 2]) {
+                    run(constants[code[pc + 3]]);
+                    state[slot + 1] = 0;
+                    state[slot]--;
+                } else {
+                    state[slot + 1]++;
+                }
+                return state[slot] <= 0;
+            }
+            case EASE: {
+                int slot = code[pc + 6];
+                int steps = code[pc + 4];
+                if (++state[slot + 1] % code[pc + 5] == 0) {
+                    float startValue = program.floatConstants[code[pc + 3]];
+                    float endValue = program.floatConstants[code[pc + 3] + 1];
+                    float progress = (float) state[slot] / (float) steps;
+                    float value = ((EaseFunction) constants[code[pc + 1]]).ease(progress) * (endValue - startValue) + startValue;
+                    accept(constants[code[pc + 2]], value);
+                    state[slot]++;
+                }
+                return state[slot] >= steps;
+            }
+            case VALUE: {
+                int slot = code[pc + 4];
+                int floatSlot = code[pc + 5];
+                float target = program.floatConstants[code[pc + 1] + 1];
+                float currentValue = floatState[floatSlot];
+                if (++state[slot] % code[pc + 3] == 0) {
+                    float step = Math.min(program.floatConstants[code[pc + 1] + 2], Math.abs(target - currentValue));
+                    if (target > currentValue) {
+                        currentValue = Math.min(target, currentValue + step);
+                    } else {
+                        currentValue = Math.max(target, currentValue - step);
+                    }
+                    floatState[floatSlot] = currentValue;
+                    accept(constants[code[pc + 2]], currentValue);
+                }
+                return currentValue == target;
+            }
+            case EASE_MULTIPLE: {
+                int slot = code[pc + 6];
+                int steps = code[pc + 4];
+                if (++state[slot + 1] % code[pc + 5] == 0) {
+                    EaseValue[] easeValues = (EaseValue[]) constants[code[pc + 1]];
+                    float progress = (float) state[slot] / (float) steps;
+                    float[] values = code[pc + 3] < 0 ? new float[easeValues.length] : buffers[code[pc + 3]];
+                    for (int i = 0; i < easeValues.length; i++) {
+                        values[i] = easeValues[i].getValue(progress);
+                    }
+                    accept(constants[code[pc + 2]], values);
+                    state[slot]++;
+                }
+                return state[slot] >= steps;
+            }
+            case FOR_EACH: {
+                int slot = code[pc + 4];
+                List<Object> list = (List<Object>) constants[code[pc + 1]];
+                if (++state[slot + 1] % code[pc + 3] == 0) {
+                    ((Consumer<Object>) constants[code[pc + 2]]).accept(list.get(state[slot]));
+                    state[slot]++;
+                }
+                return state[slot] >= list.size();
+            }
+            case FINISH:
+                animation.stop();
+                return true;
+            case CONTINUE_IF:
+                if (!((Predicate<Animation>) constants[code[pc + 1]]).test(animation)) {
+                    animation.stop();
+                }
+                return true;
+            case RUN_WHILE: {
+                int slot = code[pc + 4];
+                if (state[slot] >= code[pc + 1]) {
+                    run(constants[code[pc + 2]]);
+                    state[slot] = 0;
+                } else {
+                    state[slot]++;
+                }
+                return ((Predicate<Animation>) constants[code[pc + 3]]).test(animation);
+            }
+            case RUN_IN_PARALLEL: {
+                String name = (String) constants[code[pc + 2]];
+                if (animation.getParallelAnimation(name) == null) {
+                    Animation parallelAnimation = new Animation(manager);
+                    parallelAnimation.run((AnimationProgram) constants[code[pc + 1]], context);
+                    animation.putParallelAnimation(name, parallelAnimation);
+                }
+                return true;
+            }
+            case JOIN:
+                for (String name : (Set<String>) constants[code[pc + 1]]) {
+                    Animation parallelAnimation = animation.getParallelAnimation(name);
+                    if (parallelAnimation != null && !parallelAnimation.isFinished()) {
+                        return false;
+                    }
+                }
+                return true;
+            case AWAIT_NOTIFICATION: {
+                int slot = code[pc + 3];
+                if (state[slot + 1] == 0) {
+                    state[slot + 1] = 1;
+                    int listenerGeneration = generation;
+                    ((Consumer<AwaitNotifyAnimationFrame.AwaitNotifyListener>) constants[code[pc + 1]]).accept(() -> {
+                        Runnable wakeUp;
+                        synchronized (this) {
+                            if (generation != listenerGeneration) {
+                                return;
+                            }
+                            state[slot] = 1;
+                            wakeUp = this.wakeUp;
+                        }
+                        if (wakeUp != null) {
+                            wakeUp.run();
+                        }
+                    });
+                }
+                boolean notified;
+                // Set by the listener under this monitor, possibly on another thread
+                synchronized (this) {
+                    notified = state[slot] == 1;
+                }
+                int timeout = code[pc + 2];
+                return notified || (timeout > 0 && state[slot + 2]++ >= timeout);
+            }
+            default:
+                throw new IllegalStateException("Unknown opcode: " + code[pc]);
+        }
+    }
+
+    private void run(Object action) {
+        if (action instanceof ContextRunnable) {
+            ((ContextRunnable) action).run(context);
+        } else {
+            ((Runnable) action).run();
+        }
+    }
+
+    private void accept(Object consumer, float value) {
+        if (consumer instanceof ContextFloatConsumer) {
+            ((ContextFloatConsumer) consumer).accept(context, value);
+        } else {
+            ((FloatConsumer) consumer).accept(value);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void accept(Object consumer, float[] values) {
+        if (consumer instanceof ContextArrayConsumer) {
+            ((ContextArrayConsumer) consumer).accept(context, values);
+        } else {
+            ((Consumer<float[]>) consumer).accept(values);
+        }
+    }
+}
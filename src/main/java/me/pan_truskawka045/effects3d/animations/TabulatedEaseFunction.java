@@ -0,0 +1,81 @@
+package me.pan_truskawka045.effects3d.animations;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Ease function sampled into a lookup table, with linear interpolation between samples.
+ * <p>Evaluating it costs the same no matter how expensive the source function is.
+ * Progress outside of [0, 1] is passed to the source function.</p>
+ *
+ * @see EaseFunctions#tabulate(EaseFunction, int)
+ */
+public final class TabulatedEaseFunction implements EaseFunction {
+
+    private static final int ERROR_SAMPLES_PER_INTERVAL = 16;
+
+    @Getter
+    private final EaseFunction function;
+    @Getter
+    private final int resolution;
+    private final float[] samples;
+    /**
+     * Max absolute difference from the source function, measured between the samples
+     */
+    @Getter
+    private final float maxError;
+
+    TabulatedEaseFunction(@NotNull EaseFunction function, int resolution) {
+        Preconditions.checkNotNull(function, "function cannot be null");
+        Preconditions.checkArgument(resolution > 0, "resolution must be positive");
+        this.function = function;
+        this.resolution = resolution;
+        this.samples = new float[resolution + 1];
+        for (int i = 0; i <= resolution; i++) {
+            samples[i] = function.ease((float) i / resolution);
+        }
+        this.maxError = measureMaxError();
+    }
+
+    @Override
+    public float ease(float f) {
+        if (!(f >= 0 && f <= 1)) {
+            return function.ease(f);
+        }
+        float position = f * resolution;
+        int index = (int) position;
+        if (index >= resolution) {
+            return samples[resolution];
+        }
+        float start = samples[index];
+        return start + (samples[index + 1] - start) * (position - index);
+    }
+
+    @Override
+    public void easeInto(@NotNull float[] progress, @NotNull float[] out, int from, int to) {
+        EaseFunctions.checkRange(progress, out, from, to);
+        for (int i = from; i < to; i++) {
+            float f = progress[i];
+            if (!(f >= 0 && f < 1)) {
+                out[i] = ease(f);
+                continue;
+            }
+            float position = f * resolution;
+            int index = (int) position;
+            float start = samples[index];
+            out[i] = start + (samples[index + 1] - start) * (position - index);
+        }
+    }
+
+    private float measureMaxError() {
+        float error = 0;
+        for (int i = 0; i < resolution; i++) {
+            for (int j = 1; j < ERROR_SAMPLES_PER_INTERVAL; j++) {
+                float f = (i + (float) j / ERROR_SAMPLES_PER_INTERVAL) / resolution;
+                error = Math.max(error, Math.abs(function.ease(f) - ease(f)));
+            }
+        }
+        return error;
+    }
+}
@@ -0,0 +1,110 @@
+package me.pan_truskawka045.effects3d.animations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel used by {@link AnimationManager} to park idle animations until their wake tick.
+ * <p>Every level has 64 slots, each slot of a level spans 64 slots of the level below,
+ * so six levels cover any delay an {@code int} can hold. Scheduling and expiring are O(1),
+ * an animation is moved down at most once per level.</p>
+ *
+ * @author pan_truskawka045
+ */
+final class TimingWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 6;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final List<Animation>[][] wheels = new List[LEVELS][SLOTS];
+    private long now;
+
+    /**
+     * @return current tick of the wheel
+     */
+    long now() {
+        return now;
+    }
+
+    /**
+     * Schedules animation to expire at {@link Animation#wakeTick}
+     *
+     * @param animation animation to schedule, its wake tick has to be after {@link #now()}
+     */
+    void schedule(Animation animation) {
+        long deadline = animation.wakeTick;
+        long delta = deadline - now;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        int slot = (int) (deadline >>> (SLOT_BITS * level)) & SLOT_MASK;
+        List<Animation> bucket = wheels[level][slot];
+        if (bucket == null) {
+            bucket = new ArrayList<>();
+            wheels[level][slot] = bucket;
+        }
+        bucket.add(animation);
+    }
+
+    /**
+     * Moves the wheel one tick forward
+     *
+     * @param expired consumer of animations whose wake tick has come
+     */
+    void advance(Consumer<Animation> expired) {
+        now++;
+        int top = 0;
+        while (top < LEVELS - 1 && (now & ((1L << (SLOT_BITS * (top + 1))) - 1)) == 0) {
+            top++;
+        }
+        // Cascade from the top, so animations moved down land in slots which are still going to be visited
+        for (int level = top; level > 0; level--) {
+            List<Animation> bucket = take(level, (int) (now >>> (SLOT_BITS * level)) & SLOT_MASK);
+            if (bucket == null) {
+                continue;
+            }
+            for (Animation animation : bucket) {
+                if (animation.wakeTick <= now) {
+                    expired.accept(animation);
+                } else {
+                    schedule(animation);
+                }
+            }
+        }
+        List<Animation> bucket = take(0, (int) now & SLOT_MASK);
+        if (bucket != null) {
+            bucket.forEach(expired);
+        }
+    }
+
+    /**
+     * Removes all animations from the wheel
+     *
+     * @param consumer consumer of removed animations
+     */
+    void drain(Consumer<Animation> consumer) {
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                List<Animation> bucket = take(level, slot);
+                if (bucket != null) {
+                    bucket.forEach(consumer);
+                }
+            }
+        }
+    }
+
+    private List<Animation> take(int level, int slot) {
+        List<Animation> bucket = wheels[level][slot];
+        if (bucket == null || bucket.isEmpty()) {
+            return null;
+        }
+        wheels[level][slot] = null;
+        return bucket;
+    }
+
+}
@@ -2,12 +2,15 @@ package me.pan_truskawka045.effects3d.animations.frames;
 
 import lombok.RequiredArgsConstructor;
 import me.pan_truskawka045.effects3d.animations.AbstractFrame;
+import me.pan_truskawka045.effects3d.animations.ProgramBuilder;
+import org.jetbrains.annotations.NotNull;
 
 import java.util.function.Consumer;
 
 /**
  * Animation frame that waits for external notification or timeout.
  * Provides a listener interface for external code to notify completion.
+ * Without a timeout the animation is parked until the notification.
  */
 @RequiredArgsConstructor
 public class AwaitNotifyAnimationFrame extends AbstractFrame {
@@ -15,13 +18,20 @@ public class AwaitNotifyAnimationFrame extends AbstractFrame {
     private final Consumer<AwaitNotifyListener> consumer;
     private final int timeout;
 
-    private boolean notified = false;
+    private volatile boolean notified = false;
+    private volatile Runnable wakeUp;
     private boolean init = false;
     private int ticks = 0;
 
 
     public void init() {
-        consumer.accept(() -> AwaitNotifyAnimationFrame.this.notified = true);
+        consumer.accept(() -> {
+            AwaitNotifyAnimationFrame.this.notified = true;
+            Runnable wakeUp = AwaitNotifyAnimationFrame.this.wakeUp;
+            if (wakeUp != null) {
+                wakeUp.run();
+            }
+        });
     }
 
     @Override
@@ -38,10 +48,26 @@ public class AwaitNotifyAnimationFrame extends AbstractFrame {
         return notified || (timeout > 0 && ticks++ >= timeout);
     }
 
+    @Override
+    public boolean awaitWakeUp(@NotNull Runnable wakeUp) {
+        if (!init || timeout > 0) {
+            return false;
+        }
+        this.wakeUp = wakeUp;
+        // Checked after publishing the action, so a concurrent notification can't be missed
+        return !notified;
+    }
+
     @Override
     public void reset() {
         this.notified = false;
         this.init = false;
+        this.wakeUp = null;
+    }
+
+    @Override
+    public void compile(@NotNull ProgramBuilder builder) {
+        builder.awaitNotification(consumer, timeout);
     }
 
     public interface AwaitNotifyListener {
@@ -3,6 +3,8 @@ package me.pan_truskawka045.effects3d.animations.frames;
 import lombok.RequiredArgsConstructor;
 import me.pan_truskawka045.effects3d.animations.AbstractFrame;
 import me.pan_truskawka045.effects3d.animations.Animation;
+import me.pan_truskawka045.effects3d.animations.ProgramBuilder;
+import org.jetbrains.annotations.NotNull;
 
 import java.util.function.Predicate;
 
@@ -28,4 +30,9 @@ public class ConditionalStopFrame extends AbstractFrame {
     public boolean isFinished() {
         return true;
     }
+
+    @Override
+    public void compile(@NotNull ProgramBuilder builder) {
+        builder.continueIf(animation, predicate);
+    }
 }
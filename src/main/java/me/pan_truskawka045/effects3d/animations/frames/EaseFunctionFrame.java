@@ -3,6 +3,9 @@ package me.pan_truskawka045.effects3d.animations.frames;
 import lombok.RequiredArgsConstructor;
 import me.pan_truskawka045.effects3d.animations.AbstractFrame;
 import me.pan_truskawka045.effects3d.animations.EaseFunction;
+import me.pan_truskawka045.effects3d.animations.FloatConsumer;
+import me.pan_truskawka045.effects3d.animations.ProgramBuilder;
+import org.jetbrains.annotations.NotNull;
 
 import java.util.function.Consumer;
 
@@ -18,10 +21,14 @@ public class EaseFunctionFrame extends AbstractFrame {
     private final EaseFunction easeFunction;
     private final int steps;
     private final int ticksPerStep;
-    private final Consumer<Float> consumer;
+    private final FloatConsumer consumer;
     private int currentStep;
     private int currentTick = 0;
 
+    public EaseFunctionFrame(float startValue, float endValue, EaseFunction easeFunction, int steps, int ticksPerStep, Consumer<Float> consumer) {
+        this(startValue, endValue, easeFunction, steps, ticksPerStep, FloatConsumer.of(consumer));
+    }
+
 
     @Override
     public void tick() {
@@ -43,4 +50,41 @@ public class EaseFunctionFrame extends AbstractFrame {
         currentStep = 0;
         currentTick = 0;
     }
+
+    @Override
+    public int idleTicks() {
+        if (currentStep >= steps) {
+            return 0;
+        }
+        // Ticks before the next step only advance the counter
+        return ticksPerStep - 1 - currentTick % ticksPerStep;
+    }
+
+    @Override
+    public void skip(int ticks) {
+        currentTick += ticks;
+    }
+
+    @Override
+    public int advance(int ticks) {
+        int offset = currentTick % ticksPerStep;
+        int crossed = Math.min((offset + ticks) / ticksPerStep, steps - currentStep);
+        if (crossed <= 1) {
+            return super.advance(ticks);
+        }
+        // Only the value of the last crossed step is emitted
+        int used = crossed * ticksPerStep - offset;
+        currentStep += crossed - 1;
+        currentTick += used - 1;
+        tick();
+        if (used < ticks && !isFinished()) {
+            used += super.advance(ticks - used);
+        }
+        return used;
+    }
+
+    @Override
+    public void compile(@NotNull ProgramBuilder builder) {
+        builder.easeFunction(startValue, endValue, easeFunction, steps, ticksPerStep, consumer);
+    }
 }
@@ -3,6 +3,8 @@ package me.pan_truskawka045.effects3d.animations.frames;
 import lombok.RequiredArgsConstructor;
 import me.pan_truskawka045.effects3d.animations.AbstractFrame;
 import me.pan_truskawka045.effects3d.animations.Animation;
+import me.pan_truskawka045.effects3d.animations.ProgramBuilder;
+import org.jetbrains.annotations.NotNull;
 
 /**
  * Animation frame that stops the parent animation.
@@ -22,4 +24,8 @@ public class FinishFrame extends AbstractFrame {
         return true;
     }
 
+    @Override
+    public void compile(@NotNull ProgramBuilder builder) {
+        builder.finish(animation);
+    }
 }
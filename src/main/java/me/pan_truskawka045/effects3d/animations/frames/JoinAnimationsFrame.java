@@ -3,6 +3,8 @@ package me.pan_truskawka045.effects3d.animations.frames;
 import lombok.RequiredArgsConstructor;
 import me.pan_truskawka045.effects3d.animations.AbstractFrame;
 import me.pan_truskawka045.effects3d.animations.Animation;
+import me.pan_truskawka045.effects3d.animations.ProgramBuilder;
+import org.jetbrains.annotations.NotNull;
 
 import java.util.Set;
 
@@ -15,23 +17,72 @@ public class JoinAnimationsFrame extends AbstractFrame {
 
     private final Animation animation;
     private final Set<String> animations;
+    // Joined animations which haven't finished yet, resolved by their names once
+    private Animation[] pending;
+    private int pendingCount;
 
     @Override
     public void tick() {
-
+        if (pending != null) {
+            return;
+        }
+        pending = new Animation[animations.size()];
+        for (String s : animations) {
+            Animation parallelAnimation = animation.getParallelAnimation(s);
+            if (parallelAnimation != null) {
+                pending[pendingCount++] = parallelAnimation;
+            }
+        }
     }
 
     @Override
     public boolean isFinished() {
-        for (String s : animations) {
-            if (!animation.getParallelAnimations().containsKey(s)) {
-                continue;
+        if (pending == null) {
+            // Not reached yet, the parallel animations may not be started
+            for (String s : animations) {
+                Animation parallelAnimation = animation.getParallelAnimation(s);
+                if (parallelAnimation != null && !parallelAnimation.isFinished()) {
+                    return false;
+                }
             }
-            if (!animation.getParallelAnimations().get(s).isFinished()) {
-                return false;
+            return true;
+        }
+        for (int i = pendingCount - 1; i >= 0; i--) {
+            if (pending[i].isFinished()) {
+                pending[i] = pending[--pendingCount];
+                pending[pendingCount] = null;
             }
         }
+        return pendingCount == 0;
+    }
+
+    /**
+     * Parallel animations are ticked by the joining animation, so it's only parked
+     * when all of them wait for an event too, see {@link Animation#awaitWakeUp(Runnable)}
+     */
+    @Override
+    public boolean awaitWakeUp(@NotNull Runnable wakeUp) {
+        return pending != null && !isFinished();
+    }
+
+    /**
+     * Parallel animations are advanced by the joining animation with the ticks used by this frame,
+     * so the ticks are used one by one
+     */
+    @Override
+    public int advance(int ticks) {
+        tick();
+        return 1;
+    }
 
-        return true;
+    @Override
+    public void reset() {
+        this.pending = null;
+        this.pendingCount = 0;
+    }
+
+    @Override
+    public void compile(@NotNull ProgramBuilder builder) {
+        builder.join(animation, animations);
     }
 }
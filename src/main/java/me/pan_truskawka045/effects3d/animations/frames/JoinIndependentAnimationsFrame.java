@@ -3,22 +3,29 @@ package me.pan_truskawka045.effects3d.animations.frames;
 import me.pan_truskawka045.effects3d.animations.AbstractFrame;
 import me.pan_truskawka045.effects3d.animations.Animation;
 
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Animation frame that waits for a collection of independent animations to finish.
  * Efficiently removes completed animations during ticking to optimize performance.
+ * The animation is parked until the last of them finishes, see {@link Animation#onCompletion(Runnable)}.
  */
 public class JoinIndependentAnimationsFrame extends AbstractFrame {
 
     private final Collection<Animation> animations;
+    // Animations which haven't finished yet, counted down by their completion callbacks
+    private AtomicInteger pending;
+    private volatile Runnable wakeUp;
 
     public JoinIndependentAnimationsFrame(Collection<Animation> animations, boolean remove) {
         if (remove) {
             this.animations = animations;
         } else {
-            this.animations = new LinkedList<>(animations);
+            this.animations = new ArrayList<>(animations);
         }
     }
 
@@ -31,4 +38,29 @@ public class JoinIndependentAnimationsFrame extends AbstractFrame {
     public boolean isFinished() {
         return animations.isEmpty();
     }
+
+    @Override
+    public boolean awaitWakeUp(@NotNull Runnable wakeUp) {
+        this.wakeUp = wakeUp;
+        if (pending == null) {
+            AtomicInteger pending = new AtomicInteger(animations.size() + 1);
+            this.pending = pending;
+            Runnable countDown = () -> {
+                if (pending.decrementAndGet() == 0) {
+                    this.wakeUp.run();
+                }
+            };
+            for (Animation animation : animations) {
+                animation.onCompletion(countDown);
+            }
+            // Released after the registration, so finished animations don't wake it before it's parked
+            pending.decrementAndGet();
+        }
+        return pending.get() > 0;
+    }
+
+    @Override
+    public void reset() {
+        this.pending = null;
+    }
 }
@@ -2,6 +2,8 @@ package me.pan_truskawka045.effects3d.animations.frames;
 
 import lombok.RequiredArgsConstructor;
 import me.pan_truskawka045.effects3d.animations.AbstractFrame;
+import me.pan_truskawka045.effects3d.animations.ProgramBuilder;
+import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
 import java.util.function.Consumer;
@@ -37,4 +39,23 @@ public class LoopFrame<T> extends AbstractFrame {
         pointer = 0;
         ticks = 0;
     }
+
+    @Override
+    public int idleTicks() {
+        if (pointer >= list.size()) {
+            return 0;
+        }
+        // Ticks before the next step only advance the counter
+        return ticksPerStep - 1 - ticks % ticksPerStep;
+    }
+
+    @Override
+    public void skip(int ticks) {
+        this.ticks += ticks;
+    }
+
+    @Override
+    public void compile(@NotNull ProgramBuilder builder) {
+        builder.forEach(list, consumer, ticksPerStep);
+    }
 }
@@ -3,13 +3,17 @@ package me.pan_truskawka045.effects3d.animations.frames;
 
 import lombok.RequiredArgsConstructor;
 import me.pan_truskawka045.effects3d.animations.AbstractFrame;
+import me.pan_truskawka045.effects3d.animations.ProgramBuilder;
 import me.pan_truskawka045.effects3d.animations.values.EaseValue;
+import org.jetbrains.annotations.NotNull;
 
 import java.util.function.Consumer;
 
 /**
  * Animation frame that animates multiple values simultaneously using different easing functions.
  * Applies easing functions to multiple values and provides them as an array to the consumer.
+ * <p>By default a new array is passed on every step. When a buffer is given, values are written
+ * into it and the same array is passed on every step, so the consumer must not retain it.</p>
  */
 @RequiredArgsConstructor
 public class MultipleEaseFunctionsFrame extends AbstractFrame {
@@ -18,15 +22,36 @@ public class MultipleEaseFunctionsFrame extends AbstractFrame {
     private final Consumer<float[]> consumer;
     private final int steps;
     private final int ticksPerStep;
+    private final float[] buffer;
     private int currentStep;
     private int currentTick = 0;
 
+    public MultipleEaseFunctionsFrame(EaseValue[] easeValues, Consumer<float[]> consumer, int steps, int ticksPerStep) {
+        this(easeValues, consumer, steps, ticksPerStep, null);
+    }
+
+    /**
+     * Calculates values of all steps at once, using the batch evaluation of ease functions
+     *
+     * @return the values, indexed by step and then by ease value
+     * @see EaseValue#timeline(int)
+     */
+    public float[][] timeline() {
+        float[][] timeline = new float[steps][easeValues.length];
+        for (int i = 0; i < easeValues.length; i++) {
+            float[] values = easeValues[i].timeline(steps);
+            for (int step = 0; step < steps; step++) {
+                timeline[step][i] = values[step];
+            }
+        }
+        return timeline;
+    }
 
     @Override
     public void tick() {
         if (++currentTick % ticksPerStep == 0) {
             float progress = (float) currentStep / (float) steps;
-            float[] values = new float[easeValues.length];
+            float[] values = buffer == null ? new float[easeValues.length] : buffer;
             for (int i = 0; i < easeValues.length; i++) {
                 values[i] = easeValues[i].getValue(progress);
             }
@@ -45,4 +70,41 @@ public class MultipleEaseFunctionsFrame extends AbstractFrame {
         currentStep = 0;
         currentTick = 0;
     }
+
+    @Override
+    public int idleTicks() {
+        if (currentStep >= steps) {
+            return 0;
+        }
+        // Ticks before the next step only advance the counter
+        return ticksPerStep - 1 - currentTick % ticksPerStep;
+    }
+
+    @Override
+    public void skip(int ticks) {
+        currentTick += ticks;
+    }
+
+    @Override
+    public int advance(int ticks) {
+        int offset = currentTick % ticksPerStep;
+        int crossed = Math.min((offset + ticks) / ticksPerStep, steps - currentStep);
+        if (crossed <= 1) {
+            return super.advance(ticks);
+        }
+        // Only the values of the last crossed step are emitted
+        int used = crossed * ticksPerStep - offset;
+        currentStep += crossed - 1;
+        currentTick += used - 1;
+        tick();
+        if (used < ticks && !isFinished()) {
+            used += super.advance(ticks - used);
+        }
+        return used;
+    }
+
+    @Override
+    public void compile(@NotNull ProgramBuilder builder) {
+        builder.easeFunctions(easeValues, consumer, steps, ticksPerStep, buffer);
+    }
 }
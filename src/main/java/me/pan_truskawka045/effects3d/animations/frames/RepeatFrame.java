@@ -2,6 +2,8 @@ package me.pan_truskawka045.effects3d.animations.frames;
 
 import lombok.RequiredArgsConstructor;
 import me.pan_truskawka045.effects3d.animations.AbstractFrame;
+import me.pan_truskawka045.effects3d.animations.ProgramBuilder;
+import org.jetbrains.annotations.NotNull;
 
 /**
  * Animation frame that executes a runnable a specified number of times with delays between executions.
@@ -36,4 +38,19 @@ public class RepeatFrame extends AbstractFrame {
     public void reset() {
         this.timesLeft = times;
     }
+
+    @Override
+    public int idleTicks() {
+        return Math.max(0, delay - counter);
+    }
+
+    @Override
+    public void skip(int ticks) {
+        counter += ticks;
+    }
+
+    @Override
+    public void compile(@NotNull ProgramBuilder builder) {
+        builder.repeat(times, delay, runnable);
+    }
 }
@@ -3,6 +3,8 @@ package me.pan_truskawka045.effects3d.animations.frames;
 import lombok.RequiredArgsConstructor;
 import me.pan_truskawka045.effects3d.animations.AbstractFrame;
 import me.pan_truskawka045.effects3d.animations.Animation;
+import me.pan_truskawka045.effects3d.animations.ProgramBuilder;
+import org.jetbrains.annotations.NotNull;
 
 import java.util.function.Predicate;
 
@@ -33,4 +35,9 @@ public class RepeatUntilFrame extends AbstractFrame {
     public boolean isFinished() {
         return condition.test(parent);
     }
+
+    @Override
+    public void compile(@NotNull ProgramBuilder builder) {
+        builder.runWhile(parent, delay, runnable, condition);
+    }
 }
@@ -3,6 +3,8 @@ package me.pan_truskawka045.effects3d.animations.frames;
 import lombok.RequiredArgsConstructor;
 import me.pan_truskawka045.effects3d.animations.AbstractFrame;
 import me.pan_truskawka045.effects3d.animations.Animation;
+import me.pan_truskawka045.effects3d.animations.ProgramBuilder;
+import org.jetbrains.annotations.NotNull;
 
 /**
  * Animation frame that starts an animation in parallel with the current one.
@@ -18,8 +20,8 @@ public class RunInParallelFrame extends AbstractFrame {
 
     @Override
     public void tick() {
-        if (!animation.getParallelAnimations().containsKey(name)) {
-            parent.getParallelAnimations().put(name, animation);
+        if (animation.getParallelAnimation(name) == null) {
+            parent.putParallelAnimation(name, animation);
         }
     }
 
@@ -27,4 +29,9 @@ public class RunInParallelFrame extends AbstractFrame {
     public boolean isFinished() {
         return true;
     }
+
+    @Override
+    public void compile(@NotNull ProgramBuilder builder) {
+        builder.runInParallel(parent, name, animation);
+    }
 }
@@ -2,6 +2,8 @@ package me.pan_truskawka045.effects3d.animations.frames;
 
 import lombok.RequiredArgsConstructor;
 import me.pan_truskawka045.effects3d.animations.AbstractFrame;
+import me.pan_truskawka045.effects3d.animations.ProgramBuilder;
+import org.jetbrains.annotations.NotNull;
 
 /**
  * Animation frame that executes a runnable action once and finishes immediately.
@@ -21,4 +23,9 @@ public class RunnableFrame extends AbstractFrame {
     public boolean isFinished() {
         return true;
     }
+
+    @Override
+    public void compile(@NotNull ProgramBuilder builder) {
+        builder.run(runnable);
+    }
 }
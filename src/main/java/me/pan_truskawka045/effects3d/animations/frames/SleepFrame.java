@@ -2,6 +2,8 @@ package me.pan_truskawka045.effects3d.animations.frames;
 
 import lombok.RequiredArgsConstructor;
 import me.pan_truskawka045.effects3d.animations.AbstractFrame;
+import me.pan_truskawka045.effects3d.animations.ProgramBuilder;
+import org.jetbrains.annotations.NotNull;
 
 /**
  * Animation frame that pauses animation execution for a specified number of ticks.
@@ -28,4 +30,20 @@ public class SleepFrame extends AbstractFrame {
     public void reset() {
         this.ticksLeft = ticks;
     }
+
+    @Override
+    public int idleTicks() {
+        // The last tick finishes the frame, so it has to be executed
+        return Math.max(0, ticksLeft - 1);
+    }
+
+    @Override
+    public void skip(int ticks) {
+        ticksLeft -= ticks;
+    }
+
+    @Override
+    public void compile(@NotNull ProgramBuilder builder) {
+        builder.sleep(ticks);
+    }
 }
@@ -2,6 +2,9 @@ package me.pan_truskawka045.effects3d.animations.frames;
 
 import lombok.RequiredArgsConstructor;
 import me.pan_truskawka045.effects3d.animations.AbstractFrame;
+import me.pan_truskawka045.effects3d.animations.FloatConsumer;
+import me.pan_truskawka045.effects3d.animations.ProgramBuilder;
+import org.jetbrains.annotations.NotNull;
 
 import java.util.function.Consumer;
 
@@ -14,11 +17,15 @@ public class ValueFrame extends AbstractFrame {
     private final float startValue;
     private final float target;
     private final float maxStep;
-    private final Consumer<Float> consumer;
+    private final FloatConsumer consumer;
     private final int ticksBetween;
     private int currentTick = 0;
     private float currentValue;
 
+    public ValueFrame(float startValue, float target, float maxStep, Consumer<Float> consumer, int ticksBetween) {
+        this(startValue, target, maxStep, FloatConsumer.of(consumer), ticksBetween);
+    }
+
     @Override
     public void tick() {
         if(++currentTick % ticksBetween == 0){
@@ -42,4 +49,23 @@ public class ValueFrame extends AbstractFrame {
         currentValue = startValue;
         currentTick = 0;
     }
+
+    @Override
+    public int idleTicks() {
+        if (currentValue == target) {
+            return 0;
+        }
+        // Ticks before the next step only advance the counter
+        return ticksBetween - 1 - currentTick % ticksBetween;
+    }
+
+    @Override
+    public void skip(int ticks) {
+        currentTick += ticks;
+    }
+
+    @Override
+    public void compile(@NotNull ProgramBuilder builder) {
+        builder.untilValue(startValue, target, maxStep, consumer, ticksBetween);
+    }
 }
@@ -23,6 +23,18 @@ public class WaitForCompletion extends AbstractFrame {
         }
     }
 
+    @Override
+    public int advance(int ticks) {
+        // Runs as long as the slowest of the animations
+        int used = 1;
+        for (Animation animation : animations) {
+            if (!animation.isFinished()) {
+                used = Math.max(used, animation.advance(ticks));
+            }
+        }
+        return used;
+    }
+
     @Override
     public boolean isFinished() {
         for (Animation animation : animations) {
@@ -39,6 +39,52 @@ public final class EaseValue {
         return startValue + (target - startValue) * easeFunction.ease(f);
     }
 
+    /**
+     * Calculates values for a range of progress values at once,
+     * {@code out[i] = getValue(progress[i])} for {@code from <= i < to}.
+     *
+     * @param progress the animation progress values
+     * @param out      the array to write values into, may be the same array as progress
+     * @param from     the first index, inclusive
+     * @param to       the last index, exclusive
+     * @see EaseFunction#easeInto(float[], float[], int, int)
+     */
+    public void getValues(@NotNull float[] progress, @NotNull float[] out, int from, int to) {
+        easeFunction.easeInto(progress, out, from, to);
+        float delta = target - startValue;
+        for (int i = from; i < to; i++) {
+            out[i] = startValue + delta * out[i];
+        }
+    }
+
+    /**
+     * Calculates values of all steps of an animation taking the given amount of steps,
+     * the same values as passed by {@link me.pan_truskawka045.effects3d.animations.frames.MultipleEaseFunctionsFrame}.
+     *
+     * @param steps the amount of steps
+     * @return the values, indexed by step
+     */
+    public @NotNull float[] timeline(int steps) {
+        Preconditions.checkArgument(steps > 0, "steps must be positive");
+        float[] values = new float[steps];
+        for (int i = 0; i < steps; i++) {
+            values[i] = (float) i / (float) steps;
+        }
+        getValues(values, values, 0, steps);
+        return values;
+    }
+
+    /**
+     * Returns a copy of this EaseValue which evaluates its easing function from a lookup table.
+     *
+     * @param resolution the amount of intervals between the samples of the lookup table
+     * @return a new EaseValue instance with tabulated easing
+     * @see EaseFunctions#tabulate(EaseFunction, int)
+     */
+    public EaseValue tabulated(int resolution) {
+        return new EaseValue(startValue, target, EaseFunctions.tabulate(easeFunction, resolution));
+    }
+
     /**
      * Creates a new EaseValue with the specified start value, target value, and easing function.
      *
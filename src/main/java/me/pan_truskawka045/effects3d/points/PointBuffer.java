@@ -0,0 +1,460 @@
+package me.pan_truskawka045.effects3d.points;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Growable store of points, kept as three parallel coordinate arrays.
+ * <p>Compared to a list of {@link Point} objects it takes less than half of the memory,
+ * and bulk operations run over plain float arrays. Single points are accessed through
+ * views, see {@link #get(int)}.</p>
+ */
+public final class PointBuffer implements PointSink {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private float[] xs;
+    private float[] ys;
+    private float[] zs;
+    @Getter
+    private int size;
+    private List<Point> view;
+    // Incremented by every change of the points, see Space3D#spatialIndex(float)
+    int modCount;
+
+    /**
+     * Creates an empty buffer
+     */
+    public PointBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty buffer
+     *
+     * @param capacity initial capacity
+     */
+    public PointBuffer(int capacity) {
+        Preconditions.checkArgument(capacity >= 0, "capacity cannot be negative");
+        this.xs = new float[capacity];
+        this.ys = new float[capacity];
+        this.zs = new float[capacity];
+    }
+
+    /**
+     * Makes sure the buffer can hold given amount of points without growing
+     *
+     * @param capacity required capacity
+     * @return this
+     */
+    public @NotNull PointBuffer ensureCapacity(int capacity) {
+        if (capacity > xs.length) {
+            int newCapacity = Math.max(capacity, xs.length + (xs.length >> 1) + 1);
+            xs = Arrays.copyOf(xs, newCapacity);
+            ys = Arrays.copyOf(ys, newCapacity);
+            zs = Arrays.copyOf(zs, newCapacity);
+        }
+        return this;
+    }
+
+    /**
+     * Adds a point to the buffer
+     *
+     * @param x x coordinate of the point
+     * @param y y coordinate of the point
+     * @param z z coordinate of the point
+     * @return this
+     */
+    public @NotNull PointBuffer add(float x, float y, float z) {
+        ensureCapacity(size + 1);
+        xs[size] = x;
+        ys[size] = y;
+        zs[size] = z;
+        size++;
+        modCount++;
+        return this;
+    }
+
+    @Override
+    public void accept(float x, float y, float z) {
+        add(x, y, z);
+    }
+
+    @Override
+    public void reserve(int amount) {
+        ensureCapacity(size + amount);
+    }
+
+    /**
+     * Adds coordinates of a point to the buffer. The point itself is not stored
+     *
+     * @param point point to add
+     * @return this
+     */
+    public @NotNull PointBuffer add(@NotNull Point point) {
+        Preconditions.checkNotNull(point, "point cannot be null");
+        return add(point.getX(), point.getY(), point.getZ());
+    }
+
+    /**
+     * Adds all points from given buffer to this buffer
+     *
+     * @param buffer source buffer
+     * @return this
+     */
+    public @NotNull PointBuffer addAll(@NotNull PointBuffer buffer) {
+        Preconditions.checkNotNull(buffer, "buffer cannot be null");
+        int count = buffer.size;
+        ensureCapacity(size + count);
+        System.arraycopy(buffer.xs, 0, xs, size, count);
+        System.arraycopy(buffer.ys, 0, ys, size, count);
+        System.arraycopy(buffer.zs, 0, zs, size, count);
+        size += count;
+        modCount++;
+        return this;
+    }
+
+    /**
+     * Removes a point, following points are moved one index back
+     *
+     * @param index index of the point
+     * @return this
+     */
+    public @NotNull PointBuffer remove(int index) {
+        Preconditions.checkElementIndex(index, size);
+        int moved = size - index - 1;
+        System.arraycopy(xs, index + 1, xs, index, moved);
+        System.arraycopy(ys, index + 1, ys, index, moved);
+        System.arraycopy(zs, index + 1, zs, index, moved);
+        size--;
+        modCount++;
+        return this;
+    }
+
+    /**
+     * Removes all points
+     *
+     * @return this
+     */
+    public @NotNull PointBuffer clear() {
+        size = 0;
+        modCount++;
+        return this;
+    }
+
+    public float getX(int index) {
+        Preconditions.checkElementIndex(index, size);
+        return xs[index];
+    }
+
+    public float getY(int index) {
+        Preconditions.checkElementIndex(index, size);
+        return ys[index];
+    }
+
+    public float getZ(int index) {
+        Preconditions.checkElementIndex(index, size);
+        return zs[index];
+    }
+
+    public void setX(int index, float x) {
+        Preconditions.checkElementIndex(index, size);
+        xs[index] = x;
+        modCount++;
+    }
+
+    public void setY(int index, float y) {
+        Preconditions.checkElementIndex(index, size);
+        ys[index] = y;
+        modCount++;
+    }
+
+    public void setZ(int index, float z) {
+        Preconditions.checkElementIndex(index, size);
+        zs[index] = z;
+        modCount++;
+    }
+
+    /**
+     * Sets coordinates of a point
+     *
+     * @param index index of the point
+     * @param x     x coordinate of the point
+     * @param y     y coordinate of the point
+     * @param z     z coordinate of the point
+     */
+    public void set(int index, float x, float y, float z) {
+        Preconditions.checkElementIndex(index, size);
+        xs[index] = x;
+        ys[index] = y;
+        zs[index] = z;
+        modCount++;
+    }
+
+    /**
+     * Returns a view of a point.
+     * <p>The view reads and writes the coordinates stored at given index,
+     * it is not updated when points before it are removed.
+     * Use {@link Point#clone()} to get a detached copy.</p>
+     *
+     * @param index index of the point
+     * @return view of the point
+     */
+    public @NotNull Point get(int index) {
+        Preconditions.checkElementIndex(index, size);
+        return new PointView(this, index);
+    }
+
+    /**
+     * Returns a list view of this buffer. Added points are copied into the buffer
+     *
+     * @return list of point views
+     * @see #get(int)
+     */
+    public @NotNull List<Point> asList() {
+        if (view == null) {
+            view = new ListView();
+        }
+        return view;
+    }
+
+    /**
+     * Returns a copy of this buffer
+     *
+     * @return new buffer with the same points
+     */
+    public @NotNull PointBuffer copy() {
+        PointBuffer copy = new PointBuffer(size);
+        return copy.addAll(this);
+    }
+
+    /**
+     * Moves all points by given values
+     *
+     * @param x x shift
+     * @param y y shift
+     * @param z z shift
+     * @return this
+     */
+    public @NotNull PointBuffer shift(float x, float y, float z) {
+        shift(x, y, z, 0, size);
+        modCount++;
+        return this;
+    }
+
+    /**
+     * Moves points in range [from, to) by given values
+     */
+    void shift(float x, float y, float z, int from, int to) {
+        for (int i = from; i < to; i++) {
+            xs[i] += x;
+            ys[i] += y;
+            zs[i] += z;
+        }
+    }
+
+    /**
+     * Scales all points by the given values on each axis
+     *
+     * @param scaleX scale factor for the X axis
+     * @param scaleY scale factor for the Y axis
+     * @param scaleZ scale factor for the Z axis
+     * @return this
+     */
+    public @NotNull PointBuffer scale(float scaleX, float scaleY, float scaleZ) {
+        checkScale(scaleX, scaleY, scaleZ);
+        scale(scaleX, scaleY, scaleZ, 0, size);
+        modCount++;
+        return this;
+    }
+
+    static void checkScale(float scaleX, float scaleY, float scaleZ) {
+        Preconditions.checkArgument(Float.isFinite(scaleX), "scaleX must be a finite number");
+        Preconditions.checkArgument(Float.isFinite(scaleY), "scaleY must be a finite number");
+        Preconditions.checkArgument(Float.isFinite(scaleZ), "scaleZ must be a finite number");
+    }
+
+    /**
+     * Scales points in range [from, to) by given values
+     */
+    void scale(float scaleX, float scaleY, float scaleZ, int from, int to) {
+        for (int i = from; i < to; i++) {
+            xs[i] *= scaleX;
+            ys[i] *= scaleY;
+            zs[i] *= scaleZ;
+        }
+    }
+
+    /**
+     * Rotates all points around the x-axis
+     *
+     * @param angle rotation angle (in radians)
+     * @return this
+     * @see Point#rotateX(float)
+     */
+    public @NotNull PointBuffer rotateX(float angle) {
+        rotateX(angle, 0, size);
+        modCount++;
+        return this;
+    }
+
+    /**
+     * Rotates points in range [from, to) around the x-axis
+     */
+    void rotateX(float angle, int from, int to) {
+        float cos = (float) Math.cos(angle);
+        float sin = (float) Math.sin(angle);
+        for (int i = from; i < to; i++) {
+            float y = ys[i];
+            float z = zs[i];
+            ys[i] = y * cos - z * sin;
+            zs[i] = y * sin + z * cos;
+        }
+    }
+
+    /**
+     * Rotates all points around the y-axis
+     *
+     * @param angle rotation angle (in radians)
+     * @return this
+     * @see Point#rotateY(float)
+     */
+    public @NotNull PointBuffer rotateY(float angle) {
+        rotateY(angle, 0, size);
+        modCount++;
+        return this;
+    }
+
+    /**
+     * Rotates points in range [from, to) around the y-axis
+     */
+    void rotateY(float angle, int from, int to) {
+        float cos = (float) Math.cos(angle);
+        float sin = (float) Math.sin(angle);
+        for (int i = from; i < to; i++) {
+            float x = xs[i];
+            float z = zs[i];
+            xs[i] = x * cos + z * sin;
+            zs[i] = -x * sin + z * cos;
+        }
+    }
+
+    /**
+     * Rotates all points around the z-axis
+     *
+     * @param angle rotation angle (in radians)
+     * @return this
+     * @see Point#rotateZ(float)
+     */
+    public @NotNull PointBuffer rotateZ(float angle) {
+        rotateZ(angle, 0, size);
+        modCount++;
+        return this;
+    }
+
+    /**
+     * Rotates points in range [from, to) around the z-axis
+     */
+    void rotateZ(float angle, int from, int to) {
+        float cos = (float) Math.cos(angle);
+        float sin = (float) Math.sin(angle);
+        for (int i = from; i < to; i++) {
+            float x = xs[i];
+            float y = ys[i];
+            xs[i] = x * cos - y * sin;
+            ys[i] = x * sin + y * cos;
+        }
+    }
+
+    /**
+     * Rotates all points by the specified angles around the x, y, and z axes
+     *
+     * @param xAngle the angle to rotate around the x-axis
+     * @param yAngle the angle to rotate around the y-axis
+     * @param zAngle the angle to rotate around the z-axis
+     * @return this
+     * @see Point#rotate(float, float, float)
+     */
+    public @NotNull PointBuffer rotate(float xAngle, float yAngle, float zAngle) {
+        return transform(new Transform().rotate(xAngle, yAngle, zAngle));
+    }
+
+    /**
+     * Applies given transform to all points, in a single pass
+     *
+     * @param transform transform to apply
+     * @return this
+     */
+    public @NotNull PointBuffer transform(@NotNull Transform transform) {
+        Preconditions.checkNotNull(transform, "transform cannot be null");
+        transform.apply(xs, ys, zs, 0, size);
+        modCount++;
+        return this;
+    }
+
+    /**
+     * Applies given transform to points in range [from, to)
+     */
+    void transform(Transform transform, int from, int to) {
+        transform.apply(xs, ys, zs, from, to);
+    }
+
+    private class ListView extends AbstractList<Point> implements RandomAccess {
+
+        @Override
+        public Point get(int index) {
+            return PointBuffer.this.get(index);
+        }
+
+        @Override
+        public Point set(int index, Point element) {
+            Preconditions.checkNotNull(element, "point cannot be null");
+            Point previous = new Point(getX(index), getY(index), getZ(index));
+            PointBuffer.this.set(index, element.getX(), element.getY(), element.getZ());
+            return previous;
+        }
+
+        @Override
+        public void add(int index, Point element) {
+            Preconditions.checkNotNull(element, "point cannot be null");
+            Preconditions.checkPositionIndex(index, size);
+            ensureCapacity(size + 1);
+            int moved = size - index;
+            System.arraycopy(xs, index, xs, index + 1, moved);
+            System.arraycopy(ys, index, ys, index + 1, moved);
+            System.arraycopy(zs, index, zs, index + 1, moved);
+            xs[index] = element.getX();
+            ys[index] = element.getY();
+            zs[index] = element.getZ();
+            size++;
+            PointBuffer.this.modCount++;
+            modCount++;
+        }
+
+        @Override
+        public Point remove(int index) {
+            Point previous = new Point(getX(index), getY(index), getZ(index));
+            PointBuffer.this.remove(index);
+            modCount++;
+            return previous;
+        }
+
+        @Override
+        public void clear() {
+            PointBuffer.this.clear();
+            modCount++;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+}
@@ -0,0 +1,69 @@
+package me.pan_truskawka045.effects3d.points;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * Points of a list-backed {@link Space3D}, counting the changes of the list so the spatial index knows when to rebuild.
+ * Changes of the point objects themselves are not counted.
+ *
+ * @see Space3D#spatialIndex(float)
+ */
+final class PointList extends AbstractList<Point> implements RandomAccess {
+
+    private final ArrayList<Point> points = new ArrayList<>();
+    // Incremented by every change of the list, including replaced elements
+    int changes;
+
+    void ensureCapacity(int capacity) {
+        points.ensureCapacity(capacity);
+    }
+
+    @Override
+    public Point get(int index) {
+        return points.get(index);
+    }
+
+    @Override
+    public int size() {
+        return points.size();
+    }
+
+    @Override
+    public Point set(int index, Point element) {
+        Point previous = points.set(index, element);
+        changes++;
+        return previous;
+    }
+
+    @Override
+    public void add(int index, Point element) {
+        points.add(index, element);
+        modCount++;
+        changes++;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Point> collection) {
+        modCount++;
+        changes++;
+        return points.addAll(collection);
+    }
+
+    @Override
+    public Point remove(int index) {
+        Point removed = points.remove(index);
+        modCount++;
+        changes++;
+        return removed;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        points.subList(fromIndex, toIndex).clear();
+        modCount++;
+        changes++;
+    }
+}
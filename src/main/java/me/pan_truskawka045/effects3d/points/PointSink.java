@@ -0,0 +1,22 @@
+package me.pan_truskawka045.effects3d.points;
+
+/**
+ * Target of generated points, receiving their coordinates without allocating {@link Point} objects.
+ * <p>{@link Space3D} and {@link PointBuffer} are sinks themselves, so shapes can be drawn straight into them.</p>
+ *
+ * @see Space3DGraphics#drawLine(Point, Point, float, PointSink)
+ */
+@FunctionalInterface
+public interface PointSink {
+
+    void accept(float x, float y, float z);
+
+    /**
+     * Called before the points are generated, with the exact amount of points about to be accepted
+     *
+     * @param amount amount of points
+     */
+    default void reserve(int amount) {
+    }
+
+}
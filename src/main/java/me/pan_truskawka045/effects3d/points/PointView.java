@@ -0,0 +1,133 @@
+package me.pan_truskawka045.effects3d.points;
+
+import me.pan_truskawka045.effects3d.vector.Vector;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Point which reads and writes its coordinates in a {@link PointBuffer}
+ */
+final class PointView extends Point {
+
+    private final PointBuffer buffer;
+    private final int index;
+
+    PointView(PointBuffer buffer, int index) {
+        super(0, 0, 0);
+        this.buffer = buffer;
+        this.index = index;
+    }
+
+    @Override
+    public float getX() {
+        return buffer.getX(index);
+    }
+
+    @Override
+    public float getY() {
+        return buffer.getY(index);
+    }
+
+    @Override
+    public float getZ() {
+        return buffer.getZ(index);
+    }
+
+    @Override
+    public void setX(float x) {
+        buffer.setX(index, x);
+    }
+
+    @Override
+    public void setY(float y) {
+        buffer.setY(index, y);
+    }
+
+    @Override
+    public void setZ(float z) {
+        buffer.setZ(index, z);
+    }
+
+    @Override
+    public void shift(float x, float y, float z) {
+        buffer.set(index, getX() + x, getY() + y, getZ() + z);
+    }
+
+    @Override
+    public void rotate(float xAngle, float yAngle, float zAngle) {
+        Point point = clone();
+        point.rotate(xAngle, yAngle, zAngle);
+        store(point);
+    }
+
+    @Override
+    public void rotateX(float angle) {
+        Point point = clone();
+        point.rotateX(angle);
+        store(point);
+    }
+
+    @Override
+    public void rotateY(float angle) {
+        Point point = clone();
+        point.rotateY(angle);
+        store(point);
+    }
+
+    @Override
+    public void rotateZ(float angle) {
+        Point point = clone();
+        point.rotateZ(angle);
+        store(point);
+    }
+
+    @Override
+    public void rotateAroundVector(float angle, @NotNull Vector vector) {
+        Point point = clone();
+        point.rotateAroundVector(angle, vector);
+        store(point);
+    }
+
+    @Override
+    public void scale(float scale) {
+        Point point = clone();
+        point.scale(scale);
+        store(point);
+    }
+
+    @Override
+    public void scale(float scaleX, float scaleY, float scaleZ) {
+        Point point = clone();
+        point.scale(scaleX, scaleY, scaleZ);
+        store(point);
+    }
+
+    @Override
+    public float distanceSquare(@NotNull Point point) {
+        return clone().distanceSquare(point);
+    }
+
+    @Override
+    public float horizontalDistanceSquared(@NotNull Point point) {
+        return clone().horizontalDistanceSquared(point);
+    }
+
+    @Override
+    public Vector toVector() {
+        return new Vector(getX(), getY(), getZ());
+    }
+
+    /**
+     * Returns a detached copy of the point, which is not backed by the buffer
+     *
+     * @return new point with the same coordinates
+     */
+    @Override
+    public Point clone() {
+        return new Point(getX(), getY(), getZ());
+    }
+
+    private void store(Point point) {
+        buffer.set(index, point.getX(), point.getY(), point.getZ());
+    }
+
+}
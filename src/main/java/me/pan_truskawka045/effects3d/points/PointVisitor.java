@@ -0,0 +1,14 @@
+package me.pan_truskawka045.effects3d.points;
+
+/**
+ * Visitor of points matched by a query, receiving their coordinates without allocating {@link Point} objects
+ *
+ * @see Space3D#forEachInRange(float, float, float, float, float, float, PointVisitor)
+ * @see Space3D#forEachInDistance(float, float, float, float, PointVisitor)
+ */
+@FunctionalInterface
+public interface PointVisitor {
+
+    void visit(float x, float y, float z);
+
+}
@@ -0,0 +1,336 @@
+package me.pan_truskawka045.effects3d.points;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of shape geometry, for shapes redrawn every tick.
+ * <p>Shapes are cached as unit point sets in flat float arrays, keyed by the shape type and its resolution,
+ * e.g. the amount of points of a circle. Drawing a cached shape only translates and scales its points,
+ * so circles of any center and radius with the same amount of points share one entry.
+ * When the cache is full, the least recently used entry is evicted.</p>
+ * <br>
+ * Example:
+ * <pre>
+ *         {@code
+ *         ShapeCache cache = new ShapeCache(64);
+ *         cache.drawCircle(center, 2, 0.25f, space);
+ *         }
+ *         </pre>
+ *
+ * @see Space3DGraphics
+ */
+public final class ShapeCache {
+
+    private static final int CIRCLE = 0;
+    private static final int LINE = 1;
+    private static final int CUBE = 2;
+    private static final int BEZIER = 3;
+
+    @Getter
+    private final int maxEntries;
+    private final Map<Key, float[]> entries;
+    private long hits;
+    private long misses;
+
+    /**
+     * Creates an empty cache
+     *
+     * @param maxEntries maximal amount of cached shapes
+     */
+    public ShapeCache(int maxEntries) {
+        Preconditions.checkArgument(maxEntries > 0, "maxEntries must be positive");
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<Key, float[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, float[]> eldest) {
+                return size() > ShapeCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Draws a circle into given sink, the same points as {@link Space3DGraphics#drawCircle(Point, float, float, PointSink)}
+     *
+     * @param center                center of the circle
+     * @param radius                radius of the circle
+     * @param distanceBetweenPoints distance between two points (might change a bit)
+     * @param sink                  sink to write the points to
+     * @return amount of written points
+     */
+    public int drawCircle(@NotNull Point center, float radius, float distanceBetweenPoints, @NotNull PointSink sink) {
+        Preconditions.checkNotNull(center, "center cannot be null");
+        Preconditions.checkArgument(radius > 0, "radius must be positive");
+        Preconditions.checkArgument(distanceBetweenPoints > 0, "distanceBetweenPoints must be positive");
+        Preconditions.checkNotNull(sink, "sink cannot be null");
+
+        int pointsCount = (int) ((float) (2 * Math.PI * radius) / distanceBetweenPoints);
+        Key key = new Key(CIRCLE, pointsCount, 0, 0, null);
+        float[] shape = get(key);
+        if (shape == null) {
+            // Same float steps as Space3DGraphics#drawCircle, so scaling by the radius gives the same points
+            ShapeSink shapeSink = new ShapeSink();
+            float step = (float) (Math.PI * 2 / pointsCount);
+            for (float i = 0; i < Math.PI * 2; i += step) {
+                shapeSink.accept((float) Math.cos(i), 0, (float) Math.sin(i));
+            }
+            shape = put(key, shapeSink);
+        }
+        return draw(shape, center.getX(), center.getY(), center.getZ(), radius, radius, radius, sink);
+    }
+
+    /**
+     * Draws a line between two points into given sink.
+     * Coordinates may differ in the last bits from {@link Space3DGraphics#drawLine(Point, Point, float, PointSink)}
+     *
+     * @param point1                first point
+     * @param point2                second point
+     * @param distanceBetweenPoints distance between two points (might change a bit)
+     * @param sink                  sink to write the points to
+     * @return amount of written points
+     */
+    public int drawLine(@NotNull Point point1, @NotNull Point point2, float distanceBetweenPoints, @NotNull PointSink sink) {
+        Preconditions.checkNotNull(point1, "point1 cannot be null");
+        Preconditions.checkNotNull(point2, "point2 cannot be null");
+        Preconditions.checkArgument(distanceBetweenPoints > 0, "distanceBetweenPoints must be positive");
+        Preconditions.checkNotNull(sink, "sink cannot be null");
+
+        int segments = Space3DGraphics.linePointsCount(point1, point2, distanceBetweenPoints) - 1;
+        Key key = new Key(LINE, segments, 0, 0, null);
+        float[] shape = get(key);
+        if (shape == null) {
+            ShapeSink shapeSink = new ShapeSink();
+            shapeSink.reserve(segments + 1);
+            edge(0, 0, 0, 1, 1, 1, segments, shapeSink);
+            shape = put(key, shapeSink);
+        }
+        return draw(shape, point1.getX(), point1.getY(), point1.getZ(),
+                point2.getX() - point1.getX(), point2.getY() - point1.getY(), point2.getZ() - point1.getZ(), sink);
+    }
+
+    /**
+     * Draws the wireframe of a cube defined by two opposite corners into given sink.
+     * Coordinates may differ in the last bits from {@link Space3DGraphics#drawCubeWireframes(Point, Point, float, PointSink)}
+     *
+     * @param point1                one corner of the cube
+     * @param point2                the opposite corner of the cube
+     * @param distanceBetweenPoints the distance between each generated point along the edges
+     * @param sink                  sink to write the points to
+     * @return amount of written points
+     */
+    public int drawCubeWireframes(@NotNull Point point1, @NotNull Point point2, float distanceBetweenPoints, @NotNull PointSink sink) {
+        Preconditions.checkNotNull(point1, "point1 cannot be null");
+        Preconditions.checkNotNull(point2, "point2 cannot be null");
+        Preconditions.checkArgument(distanceBetweenPoints > 0, "distanceBetweenPoints must be positive");
+        Preconditions.checkNotNull(sink, "sink cannot be null");
+
+        float minX = Math.min(point1.getX(), point2.getX());
+        float minY = Math.min(point1.getY(), point2.getY());
+        float minZ = Math.min(point1.getZ(), point2.getZ());
+        float sizeX = Math.max(point1.getX(), point2.getX()) - minX;
+        float sizeY = Math.max(point1.getY(), point2.getY()) - minY;
+        float sizeZ = Math.max(point1.getZ(), point2.getZ()) - minZ;
+        // Parallel edges have the same length, so the amount of points on them is the same
+        int segmentsX = (int) ((double) sizeX / distanceBetweenPoints);
+        int segmentsY = (int) ((double) sizeY / distanceBetweenPoints);
+        int segmentsZ = (int) ((double) sizeZ / distanceBetweenPoints);
+        Key key = new Key(CUBE, segmentsX, segmentsY, segmentsZ, null);
+        float[] shape = get(key);
+        if (shape == null) {
+            ShapeSink shapeSink = new ShapeSink();
+            shapeSink.reserve(4 * (segmentsX + segmentsY + segmentsZ + 3));
+            // Same order of the edges as Space3DGraphics#drawCubeWireframes
+            edge(0, 0, 0, 1, 0, 0, segmentsX, shapeSink);
+            edge(1, 0, 0, 1, 0, 1, segmentsZ, shapeSink);
+            edge(1, 0, 1, 0, 0, 1, segmentsX, shapeSink);
+            edge(0, 0, 1, 0, 0, 0, segmentsZ, shapeSink);
+            edge(0, 1, 0, 1, 1, 0, segmentsX, shapeSink);
+            edge(1, 1, 0, 1, 1, 1, segmentsZ, shapeSink);
+            edge(1, 1, 1, 0, 1, 1, segmentsX, shapeSink);
+            edge(0, 1, 1, 0, 1, 0, segmentsZ, shapeSink);
+            edge(0, 0, 0, 0, 1, 0, segmentsY, shapeSink);
+            edge(1, 0, 0, 1, 1, 0, segmentsY, shapeSink);
+            edge(1, 0, 1, 1, 1, 1, segmentsY, shapeSink);
+            edge(0, 0, 1, 0, 1, 1, segmentsY, shapeSink);
+            shape = put(key, shapeSink);
+        }
+        return draw(shape, minX, minY, minZ, sizeX, sizeY, sizeZ, sink);
+    }
+
+    /**
+     * Draws a bezier curve into given sink. The curve is cached relative to its first control point,
+     * so only moved curves share an entry
+     *
+     * @param amountOfPoints amount of points of the curve
+     * @param sink           sink to write the points to
+     * @param points         control points of the curve
+     * @return amount of written points
+     * @see Space3DGraphics#bezierCurve(int, Point...)
+     */
+    public int bezierCurve(int amountOfPoints, @NotNull PointSink sink, @NotNull Point... points) {
+        Preconditions.checkArgument(amountOfPoints > 0, "amountOfPoints must be positive");
+        Preconditions.checkNotNull(sink, "sink cannot be null");
+        Preconditions.checkNotNull(points, "points array cannot be null");
+        Preconditions.checkArgument(points.length > 0, "At least one point is required");
+        for (int i = 0; i < points.length; i++) {
+            Preconditions.checkNotNull(points[i], "Point at index " + i + " cannot be null");
+        }
+
+        Point origin = points[0];
+        float[] controlPoints = new float[points.length * 3];
+        for (int i = 0; i < points.length; i++) {
+            controlPoints[i * 3] = points[i].getX() - origin.getX();
+            controlPoints[i * 3 + 1] = points[i].getY() - origin.getY();
+            controlPoints[i * 3 + 2] = points[i].getZ() - origin.getZ();
+        }
+        Key key = new Key(BEZIER, amountOfPoints, 0, 0, controlPoints);
+        float[] shape = get(key);
+        if (shape == null) {
+            Point[] relative = new Point[points.length];
+            for (int i = 0; i < relative.length; i++) {
+                relative[i] = new Point(controlPoints[i * 3], controlPoints[i * 3 + 1], controlPoints[i * 3 + 2]);
+            }
+            ShapeSink shapeSink = new ShapeSink();
+            shapeSink.reserve(amountOfPoints);
+            for (Point point : Space3DGraphics.bezierCurve(amountOfPoints, relative)) {
+                shapeSink.accept(point.getX(), point.getY(), point.getZ());
+            }
+            shape = put(key, shapeSink);
+        }
+        return draw(shape, origin.getX(), origin.getY(), origin.getZ(), 1, 1, 1, sink);
+    }
+
+    /**
+     * @return amount of shapes drawn from the cache
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return amount of shapes which had to be generated
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return amount of cached shapes
+     */
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    /**
+     * Removes all cached shapes, the hit and miss counters are kept
+     *
+     * @return this
+     */
+    public synchronized @NotNull ShapeCache clear() {
+        entries.clear();
+        return this;
+    }
+
+    private synchronized float[] get(Key key) {
+        float[] shape = entries.get(key);
+        if (shape != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return shape;
+    }
+
+    private synchronized float[] put(Key key, ShapeSink sink) {
+        float[] shape = Arrays.copyOf(sink.coordinates, sink.size * 3);
+        entries.put(key, shape);
+        return shape;
+    }
+
+    private static int draw(float[] shape, float x, float y, float z, float scaleX, float scaleY, float scaleZ, PointSink sink) {
+        int count = shape.length / 3;
+        sink.reserve(count);
+        for (int i = 0; i < shape.length; i += 3) {
+            sink.accept(x + scaleX * shape[i], y + scaleY * shape[i + 1], z + scaleZ * shape[i + 2]);
+        }
+        return count;
+    }
+
+    private static void edge(float x1, float y1, float z1, float x2, float y2, float z2, int segments, ShapeSink sink) {
+        if (segments == 0) {
+            sink.accept(x1, y1, z1);
+            return;
+        }
+        for (int i = 0; i <= segments; i++) {
+            float t = (float) i / segments;
+            sink.accept(x1 + (x2 - x1) * t, y1 + (y2 - y1) * t, z1 + (z2 - z1) * t);
+        }
+    }
+
+    private static final class Key {
+
+        private final int type;
+        private final int first;
+        private final int second;
+        private final int third;
+        private final float[] controlPoints;
+        private final int hash;
+
+        Key(int type, int first, int second, int third, float[] controlPoints) {
+            this.type = type;
+            this.first = first;
+            this.second = second;
+            this.third = third;
+            this.controlPoints = controlPoints;
+            this.hash = ((type * 31 + first) * 31 + second) * 31 + third + Arrays.hashCode(controlPoints) * 961;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return type == key.type && first == key.first && second == key.second && third == key.third
+                    && Arrays.equals(controlPoints, key.controlPoints);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Collects coordinates of a generated shape
+     */
+    private static final class ShapeSink implements PointSink {
+
+        private float[] coordinates = new float[48];
+        private int size;
+
+        @Override
+        public void accept(float x, float y, float z) {
+            reserve(1);
+            coordinates[size * 3] = x;
+            coordinates[size * 3 + 1] = y;
+            coordinates[size * 3 + 2] = z;
+            size++;
+        }
+
+        @Override
+        public void reserve(int amount) {
+            if ((size + amount) * 3 > coordinates.length) {
+                coordinates = Arrays.copyOf(coordinates, Math.max((size + amount) * 3, coordinates.length * 2));
+            }
+        }
+    }
+}
@@ -1,20 +1,63 @@
 package me.pan_truskawka045.effects3d.points;
 
 import com.google.common.base.Preconditions;
+import lombok.AccessLevel;
 import lombok.Getter;
-import lombok.NoArgsConstructor;
 import me.pan_truskawka045.effects3d.vector.Vector;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Getter
-@NoArgsConstructor
 @SuppressWarnings("unused")
-public class Space3D {
+public class Space3D implements PointSink {
+
+    // Smallest chunk worth a separate task in the parallel mode
+    private static final int MIN_CHUNK_SIZE = 4096;
+
+    private final List<Point> points;
+    private final @Nullable PointBuffer buffer;
+    @Getter(AccessLevel.NONE)
+    private float indexCellSize;
+    @Getter(AccessLevel.NONE)
+    private @Nullable SpatialGrid index;
+    // Incremented by every change made through this space, so the index knows when to rebuild
+    @Getter(AccessLevel.NONE)
+    private int modifications;
+    @Getter(AccessLevel.NONE)
+    private @Nullable ForkJoinPool pool;
+    @Getter(AccessLevel.NONE)
+    private int parallelThreshold;
 
-    private final List<Point> points = new ArrayList<>();
+    /**
+     * Creates an empty space, which stores its points as a list of {@link Point} objects
+     */
+    public Space3D() {
+        this.points = new PointList();
+        this.buffer = null;
+    }
+
+    /**
+     * Creates a space backed by given buffer.
+     * <p>Bulk operations run directly over the buffer, and {@link #getPoints()} returns
+     * a list of views of the buffered points. Added points are copied into the buffer,
+     * so later changes of the added point objects are not reflected in the space.</p>
+     *
+     * @param buffer buffer to store points in
+     */
+    public Space3D(@NotNull PointBuffer buffer) {
+        Preconditions.checkNotNull(buffer, "buffer cannot be null");
+        this.points = buffer.asList();
+        this.buffer = buffer;
+    }
 
     /**
      * Moves all points by given values
@@ -25,7 +68,17 @@ public class Space3D {
      * @return this
      */
     public @NotNull Space3D shiftAll(float x, float y, float z) {
-        points.forEach(point -> point.shift(x, y, z));
+        modifications++;
+        if (buffer != null) {
+            forEachChunk((from, to) -> buffer.shift(x, y, z, from, to));
+            buffer.modCount++;
+            return this;
+        }
+        forEachChunk((from, to) -> {
+            for (int i = from; i < to; i++) {
+                points.get(i).shift(x, y, z);
+            }
+        });
         return this;
     }
 
@@ -38,10 +91,29 @@ public class Space3D {
      * @return this
      */
     public @NotNull Space3D addPoint(float x, float y, float z) {
+        modifications++;
+        if (buffer != null) {
+            buffer.add(x, y, z);
+            return this;
+        }
         points.add(new Point(x, y, z));
         return this;
     }
 
+    @Override
+    public void accept(float x, float y, float z) {
+        addPoint(x, y, z);
+    }
+
+    @Override
+    public void reserve(int amount) {
+        if (buffer != null) {
+            buffer.reserve(amount);
+            return;
+        }
+        ((PointList) points).ensureCapacity(points.size() + amount);
+    }
+
     /**
      * Adds a point to the space
      *
@@ -50,6 +122,7 @@ public class Space3D {
      */
     public @NotNull Space3D addPoint(@NotNull Point point) {
         Preconditions.checkNotNull(point, "point cannot be null");
+        modifications++;
         points.add(point);
         return this;
     }
@@ -62,6 +135,11 @@ public class Space3D {
      */
     public @NotNull Space3D addAll(@NotNull Space3D space) {
         Preconditions.checkNotNull(space, "space cannot be null");
+        modifications++;
+        if (buffer != null && space.buffer != null) {
+            buffer.addAll(space.buffer);
+            return this;
+        }
         points.addAll(space.getPoints());
         return this;
     }
@@ -75,8 +153,30 @@ public class Space3D {
      * @return this
      */
     public @NotNull Space3D rotateAll(float x, float y, float z) {
-        //TODO optimize (calculate sins and cosines only once)
-        points.forEach(point -> point.rotate(x, y, z));
+        return transformAll(new Transform().rotate(x, y, z));
+    }
+
+    /**
+     * Applies given transform to all points.
+     * <p>Composing several operations into one {@link Transform} is faster than calling
+     * them on the space one by one, as all points are transformed in a single pass.</p>
+     *
+     * @param transform transform to apply
+     * @return this
+     */
+    public @NotNull Space3D transformAll(@NotNull Transform transform) {
+        Preconditions.checkNotNull(transform, "transform cannot be null");
+        modifications++;
+        if (buffer != null) {
+            forEachChunk((from, to) -> buffer.transform(transform, from, to));
+            buffer.modCount++;
+            return this;
+        }
+        forEachChunk((from, to) -> {
+            for (int i = from; i < to; i++) {
+                transform.apply(points.get(i));
+            }
+        });
         return this;
     }
 
@@ -87,8 +187,13 @@ public class Space3D {
      * @return this
      */
     public @NotNull Space3D rotateAllX(float angle) {
-        points.forEach(point -> point.rotateX(angle));
-        return this;
+        modifications++;
+        if (buffer != null) {
+            forEachChunk((from, to) -> buffer.rotateX(angle, from, to));
+            buffer.modCount++;
+            return this;
+        }
+        return transformAll(new Transform().rotateX(angle));
     }
 
     /**
@@ -98,8 +203,13 @@ public class Space3D {
      * @return this
      */
     public @NotNull Space3D rotateAllY(float angle) {
-        points.forEach(point -> point.rotateY(angle));
-        return this;
+        modifications++;
+        if (buffer != null) {
+            forEachChunk((from, to) -> buffer.rotateY(angle, from, to));
+            buffer.modCount++;
+            return this;
+        }
+        return transformAll(new Transform().rotateY(angle));
     }
 
     /**
@@ -109,14 +219,26 @@ public class Space3D {
      * @return this
      */
     public @NotNull Space3D rotateAllZ(float angle) {
-        points.forEach(point -> point.rotateZ(angle));
-        return this;
+        modifications++;
+        if (buffer != null) {
+            forEachChunk((from, to) -> buffer.rotateZ(angle, from, to));
+            buffer.modCount++;
+            return this;
+        }
+        return transformAll(new Transform().rotateZ(angle));
     }
 
+    /**
+     * Rotates all points around the specified vector
+     *
+     * @param angle  rotation angle (in radians)
+     * @param vector vector to rotate around
+     * @return this
+     * @see Transform#rotateAroundVector(float, Vector)
+     */
     public @NotNull Space3D rotateAllAroundVector(float angle, @NotNull Vector vector) {
         Preconditions.checkNotNull(vector, "vector cannot be null");
-        points.forEach(point -> point.rotateAroundVector(angle, vector));
-        return this;
+        return transformAll(new Transform().rotateAroundVector(angle, vector));
     }
 
     /**
@@ -126,7 +248,19 @@ public class Space3D {
      * @return this
      */
     public @NotNull Space3D scaleX(float scale) {
-        points.forEach(point -> point.setX(point.getX() * scale));
+        modifications++;
+        if (buffer != null) {
+            PointBuffer.checkScale(scale, 1, 1);
+            forEachChunk((from, to) -> buffer.scale(scale, 1, 1, from, to));
+            buffer.modCount++;
+            return this;
+        }
+        forEachChunk((from, to) -> {
+            for (int i = from; i < to; i++) {
+                Point point = points.get(i);
+                point.setX(point.getX() * scale);
+            }
+        });
         return this;
     }
 
@@ -137,7 +271,19 @@ public class Space3D {
      * @return this
      */
     public @NotNull Space3D scaleY(float scale) {
-        points.forEach(point -> point.setY(point.getY() * scale));
+        modifications++;
+        if (buffer != null) {
+            PointBuffer.checkScale(1, scale, 1);
+            forEachChunk((from, to) -> buffer.scale(1, scale, 1, from, to));
+            buffer.modCount++;
+            return this;
+        }
+        forEachChunk((from, to) -> {
+            for (int i = from; i < to; i++) {
+                Point point = points.get(i);
+                point.setY(point.getY() * scale);
+            }
+        });
         return this;
     }
 
@@ -148,7 +294,19 @@ public class Space3D {
      * @return this
      */
     public @NotNull Space3D scaleZ(float scale) {
-        points.forEach(point -> point.setZ(point.getZ() * scale));
+        modifications++;
+        if (buffer != null) {
+            PointBuffer.checkScale(1, 1, scale);
+            forEachChunk((from, to) -> buffer.scale(1, 1, scale, from, to));
+            buffer.modCount++;
+            return this;
+        }
+        forEachChunk((from, to) -> {
+            for (int i = from; i < to; i++) {
+                Point point = points.get(i);
+                point.setZ(point.getZ() * scale);
+            }
+        });
         return this;
     }
 
@@ -159,7 +317,18 @@ public class Space3D {
      * @return this
      */
     public @NotNull Space3D scale(float scale) {
-        points.forEach(point -> point.scale(scale));
+        modifications++;
+        if (buffer != null) {
+            PointBuffer.checkScale(scale, scale, scale);
+            forEachChunk((from, to) -> buffer.scale(scale, scale, scale, from, to));
+            buffer.modCount++;
+            return this;
+        }
+        forEachChunk((from, to) -> {
+            for (int i = from; i < to; i++) {
+                points.get(i).scale(scale);
+            }
+        });
         return this;
     }
 
@@ -173,7 +342,18 @@ public class Space3D {
      * @return this
      */
     public @NotNull Space3D scale(float scaleX, float scaleY, float scaleZ) {
-        points.forEach(point -> point.scale(scaleX, scaleY, scaleZ));
+        modifications++;
+        if (buffer != null) {
+            PointBuffer.checkScale(scaleX, scaleY, scaleZ);
+            forEachChunk((from, to) -> buffer.scale(scaleX, scaleY, scaleZ, from, to));
+            buffer.modCount++;
+            return this;
+        }
+        forEachChunk((from, to) -> {
+            for (int i = from; i < to; i++) {
+                points.get(i).scale(scaleX, scaleY, scaleZ);
+            }
+        });
         return this;
     }
 
@@ -204,12 +384,113 @@ public class Space3D {
         Preconditions.checkArgument(Float.isFinite(scaleX), "scaleX must be finite");
         Preconditions.checkArgument(Float.isFinite(scaleY), "scaleY must be finite");
         Preconditions.checkArgument(Float.isFinite(scaleZ), "scaleZ must be finite");
-        Space3D space = new Space3D();
-        this.points.forEach(point -> space.addPoint(point.clone()));
+        Space3D space = buffer != null ? new Space3D(buffer.copy()) : new Space3D();
+        if (buffer == null) {
+            this.points.forEach(point -> space.addPoint(point.clone()));
+        }
         space.scale(scaleX, scaleY, scaleZ);
         return space;
     }
 
+    /**
+     * Enables the parallel mode of the bulk transforms.
+     * <p>In this mode {@link #shiftAll(float, float, float)}, {@link #transformAll(Transform)} and the rotating
+     * and scaling methods split the points into chunks which are transformed on the given pool, once the space
+     * holds at least {@code threshold} points. Smaller spaces are still transformed on the calling thread.
+     * A list-backed space must not contain the same {@link Point} object twice in this mode.</p>
+     *
+     * @param pool      pool to transform the chunks on
+     * @param threshold minimal amount of points to transform in parallel
+     * @return this
+     */
+    public @NotNull Space3D parallel(@NotNull ForkJoinPool pool, int threshold) {
+        Preconditions.checkNotNull(pool, "pool cannot be null");
+        Preconditions.checkArgument(threshold >= 0, "threshold must be non-negative");
+        this.pool = pool;
+        this.parallelThreshold = threshold;
+        return this;
+    }
+
+    /**
+     * Disables the parallel mode, all points will be transformed on the calling thread
+     *
+     * @return this
+     */
+    public @NotNull Space3D sequential() {
+        this.pool = null;
+        return this;
+    }
+
+    private void forEachChunk(RangeOperation operation) {
+        int size = points.size();
+        ForkJoinPool pool = this.pool;
+        if (pool == null || size < parallelThreshold) {
+            operation.apply(0, size);
+            return;
+        }
+        int chunks = pool.getParallelism() * 4;
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, (size + chunks - 1) / chunks);
+        if (chunkSize >= size) {
+            operation.apply(0, size);
+            return;
+        }
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(size / chunkSize + 1);
+        for (int from = 0; from < size; from += chunkSize) {
+            int start = from;
+            int end = Math.min(size, from + chunkSize);
+            tasks.add(ForkJoinTask.adapt(() -> operation.apply(start, end)));
+        }
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+    }
+
+    /**
+     * Enables or disables the spatial index used by {@link #allInRange(Point, Point)}, {@link #allInDistance(Point, float)}
+     * and their visitor variants.
+     * <p>The index is a uniform grid, so a query only tests points in the cells overlapping the queried volume.
+     * It's rebuilt lazily by the first query after the points change. Changes made through this space,
+     * its buffer or the list returned by {@link #getPoints()} are detected, but {@link Point} objects
+     * of a list-backed space modified directly require {@link #invalidateSpatialIndex()}.</p>
+     *
+     * @param cellSize edge length of a grid cell, close to the usual query radius works best, 0 disables the index
+     * @return this
+     */
+    public @NotNull Space3D spatialIndex(float cellSize) {
+        Preconditions.checkArgument(cellSize >= 0, "cellSize must be non-negative");
+        Preconditions.checkArgument(Float.isFinite(cellSize), "cellSize must be finite");
+        this.indexCellSize = cellSize;
+        this.index = null;
+        return this;
+    }
+
+    /**
+     * Makes the next query rebuild the spatial index, e.g. after points of a list-backed space were moved directly
+     *
+     * @return this
+     * @see #spatialIndex(float)
+     */
+    public @NotNull Space3D invalidateSpatialIndex() {
+        this.index = null;
+        return this;
+    }
+
+    private @Nullable SpatialGrid index() {
+        if (indexCellSize == 0) {
+            return null;
+        }
+        int version = modifications + (buffer != null ? buffer.modCount : ((PointList) points).changes);
+        if (index == null || index.version != version || index.size != points.size()) {
+            index = SpatialGrid.build(points, buffer, indexCellSize, version);
+        }
+        return index;
+    }
+
+    private @NotNull List<Point> pointsAt(int[] indices) {
+        List<Point> points = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            points.add(this.points.get(index));
+        }
+        return points;
+    }
 
     /**
      * Returns all points in the given range
@@ -221,6 +502,11 @@ public class Space3D {
     public @NotNull List<Point> allInRange(@NotNull Point first, @NotNull Point second) {
         Preconditions.checkNotNull(first, "first point cannot be null");
         Preconditions.checkNotNull(second, "second point cannot be null");
+        SpatialGrid index = index();
+        if (index != null) {
+            return pointsAt(index.inBox(Math.min(first.getX(), second.getX()), Math.min(first.getY(), second.getY()), Math.min(first.getZ(), second.getZ()),
+                    Math.max(first.getX(), second.getX()), Math.max(first.getY(), second.getY()), Math.max(first.getZ(), second.getZ())));
+        }
         Point min = PointUtil.minPoint(first, second);
         Point max = PointUtil.maxPoint(first, second);
         List<Point> points = new ArrayList<>();
@@ -263,6 +549,10 @@ public class Space3D {
     public @NotNull List<Point> allInDistance(@NotNull Point point, float distance) {
         Preconditions.checkNotNull(point, "point cannot be null");
         Preconditions.checkArgument(distance >= 0, "distance must be non-negative");
+        SpatialGrid index = index();
+        if (index != null) {
+            return pointsAt(index.inSphere(point.getX(), point.getY(), point.getZ(), distance));
+        }
         List<Point> points = new ArrayList<>();
         float distanceSquare = distance * distance;
         this.points.forEach(point1 -> {
@@ -294,6 +584,128 @@ public class Space3D {
         return outsideDistance;
     }
 
+    /**
+     * Visits all points in the given range, without allocating a result list.
+     * When the spatial index is enabled, the points are visited in the order of the grid cells
+     *
+     * @param x1      x coordinate of the first corner
+     * @param y1      y coordinate of the first corner
+     * @param z1      z coordinate of the first corner
+     * @param x2      x coordinate of the second corner
+     * @param y2      y coordinate of the second corner
+     * @param z2      z coordinate of the second corner
+     * @param visitor visitor of the points
+     * @return this
+     * @see #spatialIndex(float)
+     */
+    public @NotNull Space3D forEachInRange(float x1, float y1, float z1, float x2, float y2, float z2, @NotNull PointVisitor visitor) {
+        Preconditions.checkNotNull(visitor, "visitor cannot be null");
+        float minX = Math.min(x1, x2);
+        float minY = Math.min(y1, y2);
+        float minZ = Math.min(z1, z2);
+        float maxX = Math.max(x1, x2);
+        float maxY = Math.max(y1, y2);
+        float maxZ = Math.max(z1, z2);
+        SpatialGrid index = index();
+        if (index != null) {
+            index.forEachInBox(minX, minY, minZ, maxX, maxY, maxZ, visitor);
+            return this;
+        }
+        for (int i = 0, size = points.size(); i < size; i++) {
+            float x = xAt(i);
+            float y = yAt(i);
+            float z = zAt(i);
+            if (x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ) {
+                visitor.visit(x, y, z);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Visits all points in the given distance, without allocating a result list.
+     * When the spatial index is enabled, the points are visited in the order of the grid cells
+     *
+     * @param x        x coordinate of the center
+     * @param y        y coordinate of the center
+     * @param z        z coordinate of the center
+     * @param distance distance
+     * @param visitor  visitor of the points
+     * @return this
+     * @see #spatialIndex(float)
+     */
+    public @NotNull Space3D forEachInDistance(float x, float y, float z, float distance, @NotNull PointVisitor visitor) {
+        Preconditions.checkArgument(distance >= 0, "distance must be non-negative");
+        Preconditions.checkNotNull(visitor, "visitor cannot be null");
+        SpatialGrid index = index();
+        if (index != null) {
+            index.forEachInSphere(x, y, z, distance, visitor);
+            return this;
+        }
+        float distanceSquare = distance * distance;
+        for (int i = 0, size = points.size(); i < size; i++) {
+            float pointX = xAt(i);
+            float pointY = yAt(i);
+            float pointZ = zAt(i);
+            if (SpatialGrid.distanceSquare(pointX - x, pointY - y, pointZ - z) <= distanceSquare) {
+                visitor.visit(pointX, pointY, pointZ);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Returns a lazy stream of the points in the given range, in their order in this space.
+     * The stream can be split for parallel processing, the space must not be changed while it's consumed
+     *
+     * @param x1 x coordinate of the first corner
+     * @param y1 y coordinate of the first corner
+     * @param z1 z coordinate of the first corner
+     * @param x2 x coordinate of the second corner
+     * @param y2 y coordinate of the second corner
+     * @param z2 z coordinate of the second corner
+     * @return stream of points
+     */
+    public @NotNull Stream<Point> streamInRange(float x1, float y1, float z1, float x2, float y2, float z2) {
+        float minX = Math.min(x1, x2);
+        float minY = Math.min(y1, y2);
+        float minZ = Math.min(z1, z2);
+        float maxX = Math.max(x1, x2);
+        float maxY = Math.max(y1, y2);
+        float maxZ = Math.max(z1, z2);
+        return StreamSupport.stream(new QuerySpliterator(0, points.size(),
+                (x, y, z) -> x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ), false);
+    }
+
+    /**
+     * Returns a lazy stream of the points in the given distance, in their order in this space.
+     * The stream can be split for parallel processing, the space must not be changed while it's consumed
+     *
+     * @param x        x coordinate of the center
+     * @param y        y coordinate of the center
+     * @param z        z coordinate of the center
+     * @param distance distance
+     * @return stream of points
+     */
+    public @NotNull Stream<Point> streamInDistance(float x, float y, float z, float distance) {
+        Preconditions.checkArgument(distance >= 0, "distance must be non-negative");
+        float distanceSquare = distance * distance;
+        return StreamSupport.stream(new QuerySpliterator(0, points.size(),
+                (pointX, pointY, pointZ) -> SpatialGrid.distanceSquare(pointX - x, pointY - y, pointZ - z) <= distanceSquare), false);
+    }
+
+    private float xAt(int index) {
+        return buffer != null ? buffer.getX(index) : points.get(index).getX();
+    }
+
+    private float yAt(int index) {
+        return buffer != null ? buffer.getY(index) : points.get(index).getY();
+    }
+
+    private float zAt(int index) {
+        return buffer != null ? buffer.getZ(index) : points.get(index).getZ();
+    }
+
     /*
 
         GRAPHIC UTILS
@@ -314,7 +726,7 @@ public class Space3D {
         Preconditions.checkNotNull(point2, "point2 cannot be null");
         Preconditions.checkArgument(distanceBetweenPoints > 0, "distanceBetweenPoints must be positive");
 
-        this.points.addAll(Space3DGraphics.drawLine(point1, point2, distanceBetweenPoints));
+        Space3DGraphics.drawLine(point1, point2, distanceBetweenPoints, this);
         return this;
     }
 
@@ -331,7 +743,79 @@ public class Space3D {
         Preconditions.checkNotNull(center, "center cannot be null");
         Preconditions.checkArgument(radius > 0, "radius must be positive");
         Preconditions.checkArgument(distanceBetweenPoints > 0, "distanceBetweenPoints must be positive");
-        this.points.addAll(Space3DGraphics.drawCircle(center, radius, distanceBetweenPoints));
+        Space3DGraphics.drawCircle(center, radius, distanceBetweenPoints, this);
         return this;
     }
+
+    @FunctionalInterface
+    private interface RangeOperation {
+
+        void apply(int from, int to);
+
+    }
+
+    private interface CoordinatePredicate {
+
+        boolean test(float x, float y, float z);
+
+    }
+
+    /**
+     * Iterates indices of the points, only creating point views of the buffered points which match the predicate
+     */
+    private final class QuerySpliterator implements Spliterator<Point> {
+
+        private final CoordinatePredicate predicate;
+        private int index;
+        private final int end;
+
+        QuerySpliterator(int index, int end, CoordinatePredicate predicate) {
+            this.index = index;
+            this.end = end;
+            this.predicate = predicate;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Point> action) {
+            while (index < end) {
+                int i = index++;
+                if (predicate.test(xAt(i), yAt(i), zAt(i))) {
+                    action.accept(points.get(i));
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Point> action) {
+            for (int i = index; i < end; i++) {
+                if (predicate.test(xAt(i), yAt(i), zAt(i))) {
+                    action.accept(points.get(i));
+                }
+            }
+            index = end;
+        }
+
+        @Override
+        public Spliterator<Point> trySplit() {
+            int middle = (index + end) >>> 1;
+            if (middle <= index) {
+                return null;
+            }
+            Spliterator<Point> prefix = new QuerySpliterator(index, middle, predicate);
+            index = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL;
+        }
+    }
 }
@@ -3,8 +3,9 @@ package me.pan_truskawka045.effects3d.points;
 import com.google.common.base.Preconditions;
 import lombok.experimental.UtilityClass;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -24,10 +25,42 @@ public class Space3DGraphics {
      * @return list of created points
      */
     public @NotNull List<Point> drawLine(@NotNull Point point1, @NotNull Point point2, float distanceBetweenPoints) {
+        ListSink sink = new ListSink();
+        drawLine(point1, point2, distanceBetweenPoints, sink);
+        return sink.points;
+    }
+
+    /**
+     * Draws a line between two points into given sink
+     *
+     * @param point1                first point
+     * @param point2                second point
+     * @param distanceBetweenPoints distance between two points (might change a bit)
+     * @param sink                  sink to write the points to
+     * @return amount of written points
+     * @see #drawLine(Point, Point, float)
+     */
+    public int drawLine(@NotNull Point point1, @NotNull Point point2, float distanceBetweenPoints, @NotNull PointSink sink) {
         Preconditions.checkNotNull(point1, "point1 cannot be null");
         Preconditions.checkNotNull(point2, "point2 cannot be null");
         Preconditions.checkArgument(distanceBetweenPoints > 0, "distanceBetweenPoints must be positive");
+        Preconditions.checkNotNull(sink, "sink cannot be null");
 
+        int count = linePointsCount(point1, point2, distanceBetweenPoints);
+        sink.reserve(count);
+        line(point1, point2, distanceBetweenPoints, sink);
+        return count;
+    }
+
+    int linePointsCount(Point point1, Point point2, float distanceBetweenPoints) {
+        double diffX = point2.getX() - point1.getX();
+        double diffY = point2.getY() - point1.getY();
+        double diffZ = point2.getZ() - point1.getZ();
+        double distance = Math.sqrt(diffX * diffX + diffY * diffY + diffZ * diffZ);
+        return (int) (distance / distanceBetweenPoints) + 1;
+    }
+
+    private void line(Point point1, Point point2, float distanceBetweenPoints, PointSink sink) {
         double diffX = point2.getX() - point1.getX();
         double diffY = point2.getY() - point1.getY();
         double diffZ = point2.getZ() - point1.getZ();
@@ -36,14 +69,12 @@ public class Space3DGraphics {
         double xStep = diffX / pointsCount;
         double yStep = diffY / pointsCount;
         double zStep = diffZ / pointsCount;
-        List<Point> points = new LinkedList<>();
         for (int i = 0; i <= pointsCount; i++) {
-            points.add(new Point(
-                    point1.getX() + xStep * i,
-                    point1.getY() + yStep * i,
-                    point1.getZ() + zStep * i));
+            sink.accept(
+                    (float) (point1.getX() + xStep * i),
+                    (float) (point1.getY() + yStep * i),
+                    (float) (point1.getZ() + zStep * i));
         }
-        return points;
     }
 
 
@@ -57,22 +88,45 @@ public class Space3DGraphics {
      * @return list of created points
      */
     public @NotNull List<Point> drawCircle(@NotNull Point center, float radius, float distanceBetweenPoints) {
+        ListSink sink = new ListSink();
+        drawCircle(center, radius, distanceBetweenPoints, sink);
+        return sink.points;
+    }
+
+    /**
+     * Draws a circle into given sink
+     * The circle is drawn in the XZ plane (Y is constant)
+     *
+     * @param center                center of the circle
+     * @param radius                radius of the circle
+     * @param distanceBetweenPoints distance between two points (might change a bit)
+     * @param sink                  sink to write the points to
+     * @return amount of written points
+     * @see #drawCircle(Point, float, float)
+     */
+    public int drawCircle(@NotNull Point center, float radius, float distanceBetweenPoints, @NotNull PointSink sink) {
         Preconditions.checkNotNull(center, "center cannot be null");
         Preconditions.checkArgument(radius > 0, "radius must be positive");
         Preconditions.checkArgument(distanceBetweenPoints > 0, "distanceBetweenPoints must be positive");
+        Preconditions.checkNotNull(sink, "sink cannot be null");
 
-        List<Point> points = new LinkedList<>();
         float circumference = (float) (2 * Math.PI * radius);
         int pointsCount = (int) (circumference / distanceBetweenPoints);
         float step = (float) (Math.PI * 2 / pointsCount);
 
+        // The angle is accumulated in floats, so the exact amount of points is counted the same way
+        int count = 0;
         for (float i = 0; i < Math.PI * 2; i += step) {
-            points.add(new Point(
+            count++;
+        }
+        sink.reserve(count);
+        for (float i = 0; i < Math.PI * 2; i += step) {
+            sink.accept(
                     center.getX() + radius * (float) Math.cos(i),
                     center.getY(),
-                    center.getZ() + radius * (float) Math.sin(i)));
+                    center.getZ() + radius * (float) Math.sin(i));
         }
-        return points;
+        return count;
     }
 
     public @NotNull Point[] bezierCurve(float distanceBetweenPoints, int precision, @NotNull Point... points) {
@@ -196,14 +250,33 @@ public class Space3DGraphics {
                                                   float distanceBetweenPoints,
                                                   float distanceBetweenBends,
                                                   @NotNull Point direction) {
+        ListSink sink = new ListSink();
+        semiLightningLine(start, bends, horizontalAngle, verticalAngle, distanceBetweenPoints, distanceBetweenBends, direction, sink);
+        return sink.points;
+    }
+
+    /**
+     * Draws a randomly bent line into given sink. Bends are random, so the points are reserved one segment at a time
+     *
+     * @return amount of written points
+     * @see #semiLightningLine(Point, int, float, float, float, float, Point)
+     */
+    public int semiLightningLine(@NotNull Point start,
+                                 int bends,
+                                 float horizontalAngle,
+                                 float verticalAngle,
+                                 float distanceBetweenPoints,
+                                 float distanceBetweenBends,
+                                 @NotNull Point direction,
+                                 @NotNull PointSink sink) {
         Preconditions.checkNotNull(start, "start point cannot be null");
         Preconditions.checkNotNull(direction, "direction point cannot be null");
         Preconditions.checkArgument(bends >= 0, "bends must be non-negative");
         Preconditions.checkArgument(distanceBetweenPoints > 0, "distanceBetweenPoints must be positive");
         Preconditions.checkArgument(distanceBetweenBends > 0, "distanceBetweenBends must be positive");
+        Preconditions.checkNotNull(sink, "sink cannot be null");
 
-        List<Point> points = new LinkedList<>();
-
+        int count = 0;
         Point lastPoint = start;
 
         for (int i = 0; i < bends; i++) {
@@ -221,13 +294,16 @@ public class Space3DGraphics {
             point.rotateZ(pointVerticalAngle);
             point.rotateY(pointHorizontalAngle);
             point.scale(distanceBetweenBends);
-            points.addAll(drawLine(lastPoint, point, distanceBetweenPoints));
+            int segment = linePointsCount(lastPoint, point, distanceBetweenPoints);
+            sink.reserve(segment);
+            line(lastPoint, point, distanceBetweenPoints, sink);
+            count += segment;
             lastPoint = point;
             direction = point.clone();
             direction.scale(2);
         }
 
-        return points;
+        return count;
     }
 
     /**
@@ -261,47 +337,77 @@ public class Space3DGraphics {
      * @return a list of {@link Point} objects representing the quadratic curve
      */
     public @NotNull List<Point> drawQuadratic(@NotNull Point point1, @NotNull Point point2, float aFactor, float distanceBetweenPoints) {
+        ListSink sink = new ListSink();
+        drawQuadratic(point1, point2, aFactor, distanceBetweenPoints, sink);
+        return sink.points;
+    }
+
+    /**
+     * Draws a quadratic curve between two points into given sink
+     *
+     * @param point1                the starting {@link Point} of the curve
+     * @param point2                the ending {@link Point} of the curve
+     * @param aFactor               the quadratic factor that determines the curvature
+     * @param distanceBetweenPoints the distance between each generated point along the curve
+     * @param sink                  sink to write the points to
+     * @return amount of written points
+     * @see #drawQuadratic(Point, Point, float, float)
+     */
+    public int drawQuadratic(@NotNull Point point1, @NotNull Point point2, float aFactor, float distanceBetweenPoints, @NotNull PointSink sink) {
         Preconditions.checkNotNull(point1, "point1 cannot be null");
         Preconditions.checkNotNull(point2, "point2 cannot be null");
         Preconditions.checkArgument(distanceBetweenPoints > 0, "distanceBetweenPoints must be positive");
+        Preconditions.checkNotNull(sink, "sink cannot be null");
 
-        List<Point> points = new LinkedList<>();
         float horizontalDistance = point1.horizontalDistance(point2);
 
         Preconditions.checkArgument(horizontalDistance > 0, "horizontal distance between points must be positive");
 
+        // Steps depend on the curvature, so the curve is walked once without writing to count the points
+        int count = quadratic(point1, point2, aFactor, distanceBetweenPoints, horizontalDistance, null);
+        sink.reserve(count);
+        quadratic(point1, point2, aFactor, distanceBetweenPoints, horizontalDistance, sink);
+        return count;
+    }
+
+    private int quadratic(Point point1, Point point2, float aFactor, float distanceBetweenPoints, float horizontalDistance, @Nullable PointSink sink) {
+        float diffX = point2.getX() - point1.getX();
+        float diffY = point2.getY() - point1.getY();
+        float diffZ = point2.getZ() - point1.getZ();
         float halfDistance = horizontalDistance / 2;
         float currentX = -halfDistance;
+        int count = 0;
 
         while (currentX <= halfDistance) {
             float normalizedX = (currentX + halfDistance) / horizontalDistance;
-            Point linear1 = lerp(point1, point2, normalizedX);
+            float linear1 = point1.getY() + diffY * normalizedX;
             float quadratic1 = aFactor * (currentX - halfDistance) * (currentX + halfDistance);
-            float y1 = linear1.getY() + quadratic1;
+            float y1 = linear1 + quadratic1;
 
             float currentX2 = currentX + distanceBetweenPoints;
             float normalizedX2 = (currentX2 + halfDistance) / horizontalDistance;
 
-            Point linear2 = lerp(point1, point2, normalizedX2);
+            float linear2 = point1.getY() + diffY * normalizedX2;
             float quadratic2 = aFactor * (currentX2 - halfDistance) * (currentX2 + halfDistance);
-            float y2 = linear2.getY() + quadratic2;
+            float y2 = linear2 + quadratic2;
 
-            float diffY = y2 - y1;
-            float distance = (float) Math.sqrt(diffY * diffY + distanceBetweenPoints * distanceBetweenPoints);
+            float stepY = y2 - y1;
+            float distance = (float) Math.sqrt(stepY * stepY + distanceBetweenPoints * distanceBetweenPoints);
 
             float derivedDistance = distanceBetweenPoints / distance;
 
-            float actualNormalizedX = (currentX + derivedDistance + halfDistance) / horizontalDistance;
-
-            Point linear3 = lerp(point1, point2, actualNormalizedX);
-            float quadratic3 = aFactor * (currentX + derivedDistance - halfDistance) * (currentX + derivedDistance + halfDistance);
-
-            float y3 = linear3.getY() + quadratic3;
-
-            points.add(new Point(linear3.getX(), y3, linear3.getZ()));
+            if (sink != null) {
+                float actualNormalizedX = (currentX + derivedDistance + halfDistance) / horizontalDistance;
+                float quadratic3 = aFactor * (currentX + derivedDistance - halfDistance) * (currentX + derivedDistance + halfDistance);
+                sink.accept(
+                        point1.getX() + diffX * actualNormalizedX,
+                        point1.getY() + diffY * actualNormalizedX + quadratic3,
+                        point1.getZ() + diffZ * actualNormalizedX);
+            }
+            count++;
             currentX += derivedDistance;
         }
-        return points;
+        return count;
     }
 
     /**
@@ -341,19 +447,33 @@ public class Space3DGraphics {
      * @return a list of {@link Point} objects representing the wireframe of the cube
      */
     public @NotNull List<Point> drawCubeWireframes(@NotNull Point point1, @NotNull Point point2, float distanceBetweenPoints) {
+        ListSink sink = new ListSink();
+        drawCubeWireframes(point1, point2, distanceBetweenPoints, sink);
+        return sink.points;
+    }
+
+    /**
+     * Draws the wireframe of a cube defined by two opposite corners into given sink
+     *
+     * @param point1                one corner of the cube
+     * @param point2                the opposite corner of the cube
+     * @param distanceBetweenPoints the distance between each generated point along the edges
+     * @param sink                  sink to write the points to
+     * @return amount of written points
+     * @see #drawCubeWireframes(Point, Point, float)
+     */
+    public int drawCubeWireframes(@NotNull Point point1, @NotNull Point point2, float distanceBetweenPoints, @NotNull PointSink sink) {
         Preconditions.checkNotNull(point1, "point1 cannot be null");
         Preconditions.checkNotNull(point2, "point2 cannot be null");
         Preconditions.checkArgument(distanceBetweenPoints > 0, "distanceBetweenPoints must be positive");
+        Preconditions.checkNotNull(sink, "sink cannot be null");
 
-        List<Point> points = new LinkedList<>();
-
-        // Bottom face
-        double minX = Math.min(point1.getX(), point2.getX());
-        double maxX = Math.max(point1.getX(), point2.getX());
-        double minY = Math.min(point1.getY(), point2.getY());
-        double maxY = Math.max(point1.getY(), point2.getY());
-        double minZ = Math.min(point1.getZ(), point2.getZ());
-        double maxZ = Math.max(point1.getZ(), point2.getZ());
+        float minX = Math.min(point1.getX(), point2.getX());
+        float maxX = Math.max(point1.getX(), point2.getX());
+        float minY = Math.min(point1.getY(), point2.getY());
+        float maxY = Math.max(point1.getY(), point2.getY());
+        float minZ = Math.min(point1.getZ(), point2.getZ());
+        float maxZ = Math.max(point1.getZ(), point2.getZ());
 
         Point p000 = new Point(minX, minY, minZ);
         Point p100 = new Point(maxX, minY, minZ);
@@ -364,25 +484,42 @@ public class Space3DGraphics {
         Point p011 = new Point(minX, maxY, maxZ);
         Point p111 = new Point(maxX, maxY, maxZ);
 
-        // Bottom face
-        points.addAll(drawLine(p000, p100, distanceBetweenPoints));
-        points.addAll(drawLine(p100, p101, distanceBetweenPoints));
-        points.addAll(drawLine(p101, p001, distanceBetweenPoints));
-        points.addAll(drawLine(p001, p000, distanceBetweenPoints));
-
-        // Top face
-        points.addAll(drawLine(p010, p110, distanceBetweenPoints));
-        points.addAll(drawLine(p110, p111, distanceBetweenPoints));
-        points.addAll(drawLine(p111, p011, distanceBetweenPoints));
-        points.addAll(drawLine(p011, p010, distanceBetweenPoints));
-
-        // Vertical edges
-        points.addAll(drawLine(p000, p010, distanceBetweenPoints));
-        points.addAll(drawLine(p100, p110, distanceBetweenPoints));
-        points.addAll(drawLine(p101, p111, distanceBetweenPoints));
-        points.addAll(drawLine(p001, p011, distanceBetweenPoints));
-
-        return points;
+        Point[] edges = {
+                // Bottom face
+                p000, p100, p100, p101, p101, p001, p001, p000,
+                // Top face
+                p010, p110, p110, p111, p111, p011, p011, p010,
+                // Vertical edges
+                p000, p010, p100, p110, p101, p111, p001, p011
+        };
+
+        int count = 0;
+        for (int i = 0; i < edges.length; i += 2) {
+            count += linePointsCount(edges[i], edges[i + 1], distanceBetweenPoints);
+        }
+        sink.reserve(count);
+        for (int i = 0; i < edges.length; i += 2) {
+            line(edges[i], edges[i + 1], distanceBetweenPoints, sink);
+        }
+        return count;
+    }
+
+    /**
+     * Collects points into a list, used by the list returning generators
+     */
+    private static final class ListSink implements PointSink {
+
+        private final ArrayList<Point> points = new ArrayList<>();
+
+        @Override
+        public void accept(float x, float y, float z) {
+            points.add(new Point(x, y, z));
+        }
+
+        @Override
+        public void reserve(int amount) {
+            points.ensureCapacity(points.size() + amount);
+        }
     }
 
 }
@@ -0,0 +1,261 @@
+package me.pan_truskawka045.effects3d.points;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Uniform hash grid over a snapshot of the points of a {@link Space3D}.
+ * <p>Indices of the points are grouped by the cell they fall into, the occupied cells are kept
+ * in an open addressing table. Box and sphere queries only visit the cells overlapping the
+ * queried volume, or all occupied cells when that's cheaper.</p>
+ *
+ * @see Space3D#spatialIndex(float)
+ */
+final class SpatialGrid {
+
+    // Cell coordinates are clamped to 21 bits each, so they can be packed into one long
+    private static final int MAX_CELL = (1 << 20) - 1;
+    private static final int MIN_CELL = -(1 << 20);
+    private static final long CELL_MASK = (1L << 21) - 1;
+
+    final int version;
+    final int size;
+    private final float inverseCellSize;
+    private final float[] xs;
+    private final float[] ys;
+    private final float[] zs;
+    // Occupied cells, a slot is empty when its count is 0
+    private final long[] keys;
+    private final int[] starts;
+    private final int[] counts;
+    private final int occupiedCells;
+    // Point indices grouped by cell
+    private final int[] order;
+
+    private SpatialGrid(float cellSize, int version, float[] xs, float[] ys, float[] zs) {
+        this.version = version;
+        this.size = xs.length;
+        this.inverseCellSize = 1 / cellSize;
+        this.xs = xs;
+        this.ys = ys;
+        this.zs = zs;
+        int capacity = 16;
+        while (capacity < size * 2) {
+            capacity <<= 1;
+        }
+        keys = new long[capacity];
+        starts = new int[capacity];
+        counts = new int[capacity];
+        int[] slots = new int[size];
+        int occupied = 0;
+        for (int i = 0; i < size; i++) {
+            long key = key(cell(xs[i]), cell(ys[i]), cell(zs[i]));
+            int slot = slot(key);
+            if (counts[slot] == 0) {
+                keys[slot] = key;
+                occupied++;
+            }
+            counts[slot]++;
+            slots[i] = slot;
+        }
+        occupiedCells = occupied;
+        int start = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            starts[slot] = start;
+            start += counts[slot];
+        }
+        order = new int[size];
+        int[] cursors = starts.clone();
+        for (int i = 0; i < size; i++) {
+            order[cursors[slots[i]]++] = i;
+        }
+    }
+
+    /**
+     * Builds a grid over the current coordinates of the points
+     */
+    static SpatialGrid build(List<Point> points, @Nullable PointBuffer buffer, float cellSize, int version) {
+        int size = points.size();
+        float[] xs = new float[size];
+        float[] ys = new float[size];
+        float[] zs = new float[size];
+        for (int i = 0; i < size; i++) {
+            if (buffer != null) {
+                xs[i] = buffer.getX(i);
+                ys[i] = buffer.getY(i);
+                zs[i] = buffer.getZ(i);
+            } else {
+                Point point = points.get(i);
+                xs[i] = point.getX();
+                ys[i] = point.getY();
+                zs[i] = point.getZ();
+            }
+        }
+        return new SpatialGrid(cellSize, version, xs, ys, zs);
+    }
+
+    /**
+     * Returns indices of the points inside the box, in ascending order
+     */
+    int[] inBox(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        IndexCollector collector = new IndexCollector();
+        visitInBox(minX, minY, minZ, maxX, maxY, maxZ, collector);
+        return collector.sorted();
+    }
+
+    /**
+     * Returns indices of the points in the distance from the center, in ascending order
+     */
+    int[] inSphere(float x, float y, float z, float distance) {
+        IndexCollector collector = new IndexCollector();
+        visitInSphere(x, y, z, distance, collector);
+        return collector.sorted();
+    }
+
+    /**
+     * Visits coordinates of the points inside the box, grouped by cell
+     */
+    void forEachInBox(float minX, float minY, float minZ, float maxX, float maxY, float maxZ, PointVisitor visitor) {
+        visitInBox(minX, minY, minZ, maxX, maxY, maxZ, i -> visitor.visit(xs[i], ys[i], zs[i]));
+    }
+
+    /**
+     * Visits coordinates of the points in the distance from the center, grouped by cell
+     */
+    void forEachInSphere(float x, float y, float z, float distance, PointVisitor visitor) {
+        visitInSphere(x, y, z, distance, i -> visitor.visit(xs[i], ys[i], zs[i]));
+    }
+
+    private void visitInBox(float minX, float minY, float minZ, float maxX, float maxY, float maxZ, IntConsumer visitor) {
+        visitCells(minX, minY, minZ, maxX, maxY, maxZ, i -> {
+            float x = xs[i];
+            float y = ys[i];
+            float z = zs[i];
+            if (x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ) {
+                visitor.accept(i);
+            }
+        });
+    }
+
+    private void visitInSphere(float x, float y, float z, float distance, IntConsumer visitor) {
+        float distanceSquare = distance * distance;
+        visitCells(x - distance, y - distance, z - distance, x + distance, y + distance, z + distance, i -> {
+            if (distanceSquare(xs[i] - x, ys[i] - y, zs[i] - z) <= distanceSquare) {
+                visitor.accept(i);
+            }
+        });
+    }
+
+    /**
+     * Squared distance computed like {@link Point#distanceSquare(Point)}, so both give the same results
+     */
+    static float distanceSquare(float dx, float dy, float dz) {
+        return (float) ((double) dx * dx + (double) dy * dy + (double) dz * dz);
+    }
+
+    /**
+     * Visits indices of all points in the cells overlapping the box
+     */
+    private void visitCells(float minX, float minY, float minZ, float maxX, float maxY, float maxZ, IntConsumer visitor) {
+        int fromX = cell(minX);
+        int fromY = cell(minY);
+        int fromZ = cell(minZ);
+        int toX = cell(maxX);
+        int toY = cell(maxY);
+        int toZ = cell(maxZ);
+        // Multiplied in two steps, so the amount of cells can't overflow
+        long cells = (long) (toX - fromX + 1) * (toY - fromY + 1);
+        if (cells <= occupiedCells) {
+            cells *= toZ - fromZ + 1;
+        }
+        if (cells > occupiedCells) {
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (counts[slot] == 0) {
+                    continue;
+                }
+                long key = keys[slot];
+                int x = unpack(key >> 42);
+                int y = unpack(key >> 21);
+                int z = unpack(key);
+                if (x >= fromX && x <= toX && y >= fromY && y <= toY && z >= fromZ && z <= toZ) {
+                    visitCell(slot, visitor);
+                }
+            }
+            return;
+        }
+        for (int x = fromX; x <= toX; x++) {
+            for (int y = fromY; y <= toY; y++) {
+                for (int z = fromZ; z <= toZ; z++) {
+                    long key = key(x, y, z);
+                    int slot = slot(key);
+                    if (counts[slot] != 0) {
+                        visitCell(slot, visitor);
+                    }
+                }
+            }
+        }
+    }
+
+    private void visitCell(int slot, IntConsumer visitor) {
+        int end = starts[slot] + counts[slot];
+        for (int i = starts[slot]; i < end; i++) {
+            visitor.accept(order[i]);
+        }
+    }
+
+    /**
+     * @return slot holding given key, or the empty slot it would be inserted into
+     */
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (counts[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int cell(float coordinate) {
+        float cell = (float) Math.floor(coordinate * inverseCellSize);
+        // Also maps NaN to a cell, such points never match a query anyway
+        return cell >= MAX_CELL ? MAX_CELL : cell <= MIN_CELL ? MIN_CELL : (int) cell;
+    }
+
+    private static long key(int x, int y, int z) {
+        return (x & CELL_MASK) << 42 | (y & CELL_MASK) << 21 | (z & CELL_MASK);
+    }
+
+    private static int unpack(long bits) {
+        return (int) (bits << 43 >> 43);
+    }
+
+    private static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    private static final class IndexCollector implements IntConsumer {
+
+        private int[] indices = new int[16];
+        private int size;
+
+        @Override
+        public void accept(int index) {
+            if (size == indices.length) {
+                indices = Arrays.copyOf(indices, size * 2);
+            }
+            indices[size++] = index;
+        }
+
+        int[] sorted() {
+            int[] sorted = Arrays.copyOf(indices, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
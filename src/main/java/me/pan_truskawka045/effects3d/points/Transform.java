@@ -0,0 +1,235 @@
+package me.pan_truskawka045.effects3d.points;
+
+import com.google.common.base.Preconditions;
+import lombok.ToString;
+import me.pan_truskawka045.effects3d.vector.Vector;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Affine transform of 3D space, composed of rotations, scales and shifts.
+ * <p>Every operation is applied after the previously added ones, e.g.
+ * {@code new Transform().rotateX(a).shift(1, 0, 0)} first rotates and then shifts a point.
+ * Sines and cosines are calculated once, when the transform is composed, so applying it
+ * to a point costs only nine multiplications.</p>
+ */
+@ToString
+public final class Transform implements Cloneable {
+
+    private double m00 = 1, m01, m02;
+    private double m10, m11 = 1, m12;
+    private double m20, m21, m22 = 1;
+    private double tx, ty, tz;
+
+    /**
+     * Rotates by the specified angles around the x, y, and z axes, in this order
+     *
+     * @param xAngle the angle to rotate around the x-axis
+     * @param yAngle the angle to rotate around the y-axis
+     * @param zAngle the angle to rotate around the z-axis
+     * @return this
+     * @see Point#rotate(float, float, float)
+     */
+    public @NotNull Transform rotate(float xAngle, float yAngle, float zAngle) {
+        return rotateX(xAngle).rotateY(yAngle).rotateZ(zAngle);
+    }
+
+    /**
+     * Rotates around the x-axis
+     *
+     * @param angle the angle to rotate by
+     * @return this
+     * @see Point#rotateX(float)
+     */
+    public @NotNull Transform rotateX(float angle) {
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle);
+        return multiply(1, 0, 0, 0, cos, -sin, 0, sin, cos);
+    }
+
+    /**
+     * Rotates around the y-axis
+     *
+     * @param angle the angle to rotate by
+     * @return this
+     * @see Point#rotateY(float)
+     */
+    public @NotNull Transform rotateY(float angle) {
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle);
+        return multiply(cos, 0, sin, 0, 1, 0, -sin, 0, cos);
+    }
+
+    /**
+     * Rotates around the z-axis
+     *
+     * @param angle the angle to rotate by
+     * @return this
+     * @see Point#rotateZ(float)
+     */
+    public @NotNull Transform rotateZ(float angle) {
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle);
+        return multiply(cos, -sin, 0, sin, cos, 0, 0, 0, 1);
+    }
+
+    /**
+     * Rotates around the specified vector.
+     * <p>The axis-angle rotation is converted once into a rotation matrix,
+     * the vector doesn't have to be normalised.</p>
+     *
+     * @param angle  the angle to rotate by
+     * @param vector the vector to rotate around
+     * @return this
+     * @see Point#rotateAroundVector(float, Vector)
+     */
+    public @NotNull Transform rotateAroundVector(float angle, @NotNull Vector vector) {
+        Preconditions.checkNotNull(vector, "vector cannot be null");
+        Preconditions.checkArgument(Float.isFinite(angle), "angle must be a finite number");
+        Preconditions.checkArgument(!vector.isZero(), "vector cannot be zero vector");
+
+        double length = Math.sqrt((double) vector.getX() * vector.getX() + (double) vector.getY() * vector.getY() + (double) vector.getZ() * vector.getZ());
+        double sin = Math.sin(angle / 2.0) / length;
+        double w = Math.cos(angle / 2.0);
+        double x = vector.getX() * sin;
+        double y = vector.getY() * sin;
+        double z = vector.getZ() * sin;
+
+        return multiply(
+                1 - 2 * (y * y + z * z), 2 * (x * y - w * z), 2 * (x * z + w * y),
+                2 * (x * y + w * z), 1 - 2 * (x * x + z * z), 2 * (y * z - w * x),
+                2 * (x * z - w * y), 2 * (y * z + w * x), 1 - 2 * (x * x + y * y));
+    }
+
+    /**
+     * Scales by the specified factor on all axes
+     *
+     * @param scale the factor to scale by
+     * @return this
+     */
+    public @NotNull Transform scale(float scale) {
+        return scale(scale, scale, scale);
+    }
+
+    /**
+     * Scales by the specified factors for each axis
+     *
+     * @param scaleX the factor to scale the x-coordinate by
+     * @param scaleY the factor to scale the y-coordinate by
+     * @param scaleZ the factor to scale the z-coordinate by
+     * @return this
+     */
+    public @NotNull Transform scale(float scaleX, float scaleY, float scaleZ) {
+        Preconditions.checkArgument(Float.isFinite(scaleX), "scaleX must be a finite number");
+        Preconditions.checkArgument(Float.isFinite(scaleY), "scaleY must be a finite number");
+        Preconditions.checkArgument(Float.isFinite(scaleZ), "scaleZ must be a finite number");
+        return multiply(scaleX, 0, 0, 0, scaleY, 0, 0, 0, scaleZ);
+    }
+
+    /**
+     * Shifts by the specified amounts
+     *
+     * @param x the amount to shift the x-coordinate
+     * @param y the amount to shift the y-coordinate
+     * @param z the amount to shift the z-coordinate
+     * @return this
+     */
+    public @NotNull Transform shift(float x, float y, float z) {
+        tx += x;
+        ty += y;
+        tz += z;
+        return this;
+    }
+
+    /**
+     * Appends given transform, which will be applied after this one
+     *
+     * @param transform transform to append
+     * @return this
+     */
+    public @NotNull Transform then(@NotNull Transform transform) {
+        Preconditions.checkNotNull(transform, "transform cannot be null");
+        double x = transform.tx, y = transform.ty, z = transform.tz;
+        multiply(transform.m00, transform.m01, transform.m02,
+                transform.m10, transform.m11, transform.m12,
+                transform.m20, transform.m21, transform.m22);
+        tx += x;
+        ty += y;
+        tz += z;
+        return this;
+    }
+
+    /**
+     * Transforms given point
+     *
+     * @param point point to transform
+     */
+    public void apply(@NotNull Point point) {
+        Preconditions.checkNotNull(point, "point cannot be null");
+        float x = point.getX();
+        float y = point.getY();
+        float z = point.getZ();
+        point.setX((float) (m00 * x + m01 * y + m02 * z + tx));
+        point.setY((float) (m10 * x + m11 * y + m12 * z + ty));
+        point.setZ((float) (m20 * x + m21 * y + m22 * z + tz));
+    }
+
+    /**
+     * Transforms points stored in given arrays, in range [from, to)
+     */
+    void apply(float[] xs, float[] ys, float[] zs, int from, int to) {
+        float m00 = (float) this.m00, m01 = (float) this.m01, m02 = (float) this.m02;
+        float m10 = (float) this.m10, m11 = (float) this.m11, m12 = (float) this.m12;
+        float m20 = (float) this.m20, m21 = (float) this.m21, m22 = (float) this.m22;
+        float tx = (float) this.tx, ty = (float) this.ty, tz = (float) this.tz;
+        for (int i = from; i < to; i++) {
+            float x = xs[i];
+            float y = ys[i];
+            float z = zs[i];
+            xs[i] = m00 * x + m01 * y + m02 * z + tx;
+            ys[i] = m10 * x + m11 * y + m12 * z + ty;
+            zs[i] = m20 * x + m21 * y + m22 * z + tz;
+        }
+    }
+
+    /**
+     * Multiplies this transform from the left by given linear transform
+     */
+    private Transform multiply(double a00, double a01, double a02,
+                               double a10, double a11, double a12,
+                               double a20, double a21, double a22) {
+        double n00 = a00 * m00 + a01 * m10 + a02 * m20;
+        double n01 = a00 * m01 + a01 * m11 + a02 * m21;
+        double n02 = a00 * m02 + a01 * m12 + a02 * m22;
+        double n10 = a10 * m00 + a11 * m10 + a12 * m20;
+        double n11 = a10 * m01 + a11 * m11 + a12 * m21;
+        double n12 = a10 * m02 + a11 * m12 + a12 * m22;
+        double n20 = a20 * m00 + a21 * m10 + a22 * m20;
+        double n21 = a20 * m01 + a21 * m11 + a22 * m21;
+        double n22 = a20 * m02 + a21 * m12 + a22 * m22;
+        double nx = a00 * tx + a01 * ty + a02 * tz;
+        double ny = a10 * tx + a11 * ty + a12 * tz;
+        double nz = a20 * tx + a21 * ty + a22 * tz;
+        m00 = n00;
+        m01 = n01;
+        m02 = n02;
+        m10 = n10;
+        m11 = n11;
+        m12 = n12;
+        m20 = n20;
+        m21 = n21;
+        m22 = n22;
+        tx = nx;
+        ty = ny;
+        tz = nz;
+        return this;
+    }
+
+    @Override
+    public Transform clone() {
+        try {
+            return (Transform) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError();
+        }
+    }
+}
@@ -0,0 +1,591 @@
+package me.pan_truskawka045.effects3d.animations;
+
+import me.pan_truskawka045.effects3d.animations.frames.AwaitNotifyAnimationFrame;
+import me.pan_truskawka045.effects3d.animations.frames.RepeatFrame;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnimationManagerTest {
+
+    private static List<Integer> record(AnimationManager manager, int ticks) {
+        List<Integer> executions = new ArrayList<>();
+        AtomicInteger tick = new AtomicInteger();
+        manager.newAnimation()
+                .then(() -> executions.add(tick.get()))
+                .sleep(5)
+                .then(() -> executions.add(tick.get()))
+                .repeat(3, 4, () -> executions.add(tick.get()))
+                .sleep(100)
+                .then(() -> executions.add(tick.get()))
+                .finish();
+        for (int i = 0; i < ticks; i++) {
+            tick.set(i);
+            manager.tick();
+        }
+        return executions;
+    }
+
+    @Test
+    public void timingWheelKeepsTheSameTiming() {
+        List<Integer> expected = record(new AnimationManager(), 200);
+        List<Integer> actual = record(new AnimationManager().timingWheel(true), 200);
+
+        assertEquals(6, expected.size());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void timingWheelHandlesLongSleeps() {
+        AnimationManager manager = new AnimationManager().timingWheel(true);
+        AtomicInteger executed = new AtomicInteger();
+        manager.newAnimation().sleep(10_000).then(executed::incrementAndGet).finish();
+
+        for (int i = 0; i < 10_000; i++) {
+            manager.tick();
+        }
+        assertEquals(0, executed.get());
+        manager.tick();
+        assertEquals(1, executed.get());
+    }
+
+    @Test
+    public void sleepingAnimationIsNotTicked() {
+        AnimationManager manager = new AnimationManager().timingWheel(true);
+        manager.newAnimation().sleep(50).finish();
+
+        manager.tick();
+
+        assertEquals(0, manager.activeAnimations());
+    }
+
+    @Test
+    public void stoppedSleepingAnimationIsNotWoken() {
+        AnimationManager manager = new AnimationManager().timingWheel(true);
+        AtomicInteger executed = new AtomicInteger();
+        Animation animation = manager.newAnimation().sleep(5).then(executed::incrementAndGet).finish();
+
+        manager.tick();
+        animation.stop();
+        for (int i = 0; i < 10; i++) {
+            manager.tick();
+        }
+
+        assertEquals(0, executed.get());
+        assertEquals(0, manager.activeAnimations());
+    }
+
+    @Test
+    public void disablingTimingWheelResumesParkedAnimations() {
+        AnimationManager manager = new AnimationManager().timingWheel(true);
+        AtomicInteger executed = new AtomicInteger();
+        manager.newAnimation().sleep(5).then(executed::incrementAndGet).finish();
+
+        manager.tick();
+        manager.tick();
+        manager.timingWheel(false);
+        manager.tick();
+        manager.tick();
+        assertEquals(0, executed.get());
+        manager.tick();
+        assertEquals(0, executed.get());
+        manager.tick();
+        assertEquals(1, executed.get());
+    }
+
+    @Test
+    public void parallelModeTicksThreadSafeAnimationsOnThePool() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            AnimationManager manager = new AnimationManager().parallel(pool, 8);
+            AtomicInteger concurrentRuns = new AtomicInteger();
+            AtomicInteger serialRuns = new AtomicInteger();
+            Set<Thread> serialThreads = ConcurrentHashMap.newKeySet();
+            for (int i = 0; i < 100; i++) {
+                manager.newAnimation().threadSafe().repeat(10, concurrentRuns::incrementAndGet).finish();
+                manager.newAnimation().repeat(10, () -> {
+                    serialThreads.add(Thread.currentThread());
+                    serialRuns.incrementAndGet();
+                }).finish();
+            }
+
+            for (int i = 0; i < 12; i++) {
+                manager.tick();
+            }
+
+            assertEquals(1000, concurrentRuns.get());
+            assertEquals(1000, serialRuns.get());
+            assertEquals(1, serialThreads.size());
+            assertTrue(serialThreads.contains(Thread.currentThread()));
+            assertEquals(0, manager.activeAnimations());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void threadSafeAnimationsMayCreateAnimationsInParallelMode() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            AnimationManager manager = new AnimationManager().parallel(pool, 2);
+            AtomicInteger executed = new AtomicInteger();
+            manager.newAnimation().threadSafe()
+                    .then(() -> manager.newAnimation().then(executed::incrementAndGet).finish())
+                    .finish();
+
+            manager.tick();
+            manager.tick();
+            manager.tick();
+
+            assertEquals(1, executed.get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void creatingAnimationDuringTickDoesNotInterruptIt() {
+        AnimationManager manager = new AnimationManager();
+        AtomicInteger executed = new AtomicInteger();
+        manager.newAnimation().then(() -> manager.newAnimation().then(executed::incrementAndGet).finish()).finish();
+        for (int i = 0; i < 10; i++) {
+            manager.newAnimation().then(executed::incrementAndGet).finish();
+        }
+
+        manager.tick();
+        assertEquals(10, executed.get());
+        manager.tick();
+        assertEquals(11, executed.get());
+    }
+
+    @Test
+    public void stoppingAnimationsFromOtherThreadsRemovesThem() throws InterruptedException {
+        AnimationManager manager = new AnimationManager();
+        List<Animation> created = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            created.add(manager.newAnimation().repeatForever(() -> {
+            }));
+        }
+        manager.tick();
+        assertEquals(1000, manager.activeAnimations());
+
+        Thread thread = new Thread(() -> created.subList(0, 600).forEach(Animation::stop));
+        thread.start();
+        thread.join();
+        manager.tick();
+
+        assertEquals(400, manager.activeAnimations());
+    }
+
+    @Test
+    public void finishedAnimationsAreReusedWhenPoolingIsEnabled() {
+        AnimationManager manager = new AnimationManager().pooling(10);
+        AtomicInteger counter = new AtomicInteger();
+        AnimationTemplate<Integer> template = AnimationTemplate.<Integer>builder()
+                .sleep(2)
+                .then(counter::addAndGet)
+                .finish()
+                .build();
+
+        Animation first = manager.spawn(template, 1);
+        for (int i = 0; i < 5; i++) {
+            manager.tick();
+        }
+        assertEquals(1, manager.pooledAnimations());
+
+        Animation second = manager.spawn(template, 10);
+        for (int i = 0; i < 5; i++) {
+            manager.tick();
+        }
+
+        assertSame(first, second);
+        assertEquals(11, counter.get());
+        assertEquals(1, manager.pooledAnimations());
+    }
+
+    @Test
+    public void recycledAnimationStartsClean() {
+        AnimationManager manager = new AnimationManager().pooling(10);
+        AtomicInteger counter = new AtomicInteger();
+        manager.newAnimation().threadSafe().then(counter::incrementAndGet).finish();
+        manager.tick();
+
+        Animation reused = manager.newAnimation().sleep(3).then(counter::incrementAndGet).finish();
+        assertFalse(reused.isFinished());
+        assertFalse(reused.isThreadSafe());
+        for (int i = 0; i < 3; i++) {
+            manager.tick();
+        }
+        assertEquals(1, counter.get());
+        manager.tick();
+
+        assertEquals(2, counter.get());
+        assertEquals(1, manager.pooledAnimations());
+    }
+
+    @Test
+    public void poolIsLimited() {
+        AnimationManager manager = new AnimationManager().pooling(2);
+        for (int i = 0; i < 5; i++) {
+            manager.newAnimation().finish();
+        }
+        manager.tick();
+
+        assertEquals(2, manager.pooledAnimations());
+        manager.pooling(0);
+        assertEquals(0, manager.pooledAnimations());
+    }
+
+    private static List<String> catchUp(AnimationManager manager, int batches, int batchSize, boolean compiled) {
+        List<String> trace = new ArrayList<>();
+        Animation animation = manager.of()
+                .then(() -> trace.add("start"))
+                .sleep(7)
+                .easeFunction(0, 1, EaseFunctions.LINEAR, 4, 5, value -> trace.add("ease " + value))
+                .repeat(3, 6, () -> trace.add("repeat"))
+                .untilValue(0, 1, 0.5f, value -> trace.add("value " + value), 3)
+                .forEach(Arrays.asList("a", "b"), element -> trace.add("each " + element), 4)
+                .then(() -> trace.add("end"))
+                .sleep(1);
+        if (compiled) {
+            manager.newAnimation(animation.compile());
+        } else {
+            manager.newAnimation().then(animation);
+        }
+        List<String> snapshots = new ArrayList<>();
+        for (int i = 0; i < batches; i++) {
+            if (batchSize == 1) {
+                manager.tick();
+            } else {
+                manager.tick(batchSize);
+            }
+            snapshots.add(trace.toString());
+        }
+        return snapshots;
+    }
+
+    @Test
+    public void catchUpTicksBehaveLikeSingleTicks() {
+        for (boolean compiled : new boolean[]{false, true}) {
+            List<String> expected = catchUp(new AnimationManager(), 100, 1, compiled);
+            List<String> actual = catchUp(new AnimationManager(), 10, 10, compiled);
+            List<String> wheel = catchUp(new AnimationManager().timingWheel(true), 10, 10, compiled);
+
+            for (int i = 0; i < 10; i++) {
+                assertEquals(expected.get(i * 10 + 9), actual.get(i));
+                assertEquals(expected.get(i * 10 + 9), wheel.get(i));
+            }
+            assertTrue(actual.get(9).endsWith("end]"));
+        }
+    }
+
+    @Test
+    public void advanceCarriesRemainder() {
+        AnimationManager manager = new AnimationManager().tickLength(1000);
+        AtomicInteger counter = new AtomicInteger();
+        manager.newAnimation().repeatForever(counter::incrementAndGet);
+
+        assertEquals(0, manager.advance(600));
+        assertEquals(1, manager.advance(600));
+        assertEquals(3, manager.advance(2800));
+
+        assertEquals(4, counter.get());
+    }
+
+    @Test
+    public void metricsCountAnimations() {
+        AnimationManager manager = new AnimationManager().timingWheel(true).metrics(1);
+        manager.newAnimation().then(() -> {
+        }).finish();
+        manager.newAnimation().sleep(50).finish();
+        Animation stopped = manager.newAnimation().repeatForever(() -> {
+        });
+        Animation slow = manager.newAnimation().repeatForever(() -> {
+            long end = System.nanoTime() + 200_000;
+            while (System.nanoTime() < end) {
+                Thread.yield();
+            }
+        });
+        for (int i = 0; i < 3; i++) {
+            manager.tick();
+        }
+        stopped.stop();
+        manager.tick();
+
+        AnimationMetrics metrics = manager.getMetrics();
+        assertEquals(4, metrics.getSampledTicks());
+        assertEquals(1, metrics.getActiveAnimations());
+        assertEquals(1, metrics.getSleepingAnimations());
+        assertEquals(1, metrics.getFinishedAnimations());
+        assertEquals(1, metrics.getRemovedAnimations());
+        assertSame(slow, metrics.getSlowestAnimations().get(0).getAnimation());
+        assertTrue(metrics.getMaxTickNanos() >= 200_000);
+        assertTrue(metrics.getFrameTypes().containsKey(RepeatFrame.class));
+    }
+
+    @Test
+    public void metricsAreSampled() {
+        AnimationManager manager = new AnimationManager().metrics(4);
+        manager.newAnimation().repeatForever(() -> {
+        });
+        for (int i = 0; i < 10; i++) {
+            manager.tick();
+        }
+
+        assertEquals(3, manager.getMetrics().getSampledTicks());
+        assertThrows(IllegalStateException.class, () -> manager.metrics(0).getMetrics());
+    }
+
+    @Test
+    public void budgetedTickDefersAnimationsExceptHighPriority() {
+        AnimationManager manager = new AnimationManager().metrics(1);
+        AtomicInteger high = new AtomicInteger();
+        AtomicInteger normal = new AtomicInteger();
+        manager.newAnimation().priority(AnimationPriority.HIGH).repeatForever(high::incrementAndGet);
+        for (int i = 0; i < 3; i++) {
+            manager.newAnimation().repeatForever(normal::incrementAndGet);
+        }
+        manager.tick();
+
+        assertEquals(3, manager.tickBudgeted(1));
+        assertEquals(2, high.get());
+        assertEquals(3, normal.get());
+
+        // Deferred animations catch up on the missed tick
+        manager.tick();
+        assertEquals(3, high.get());
+        assertEquals(9, normal.get());
+        assertEquals(3, manager.getMetrics().getDeferredAnimations());
+    }
+
+    @Test
+    public void budgetedTickContinuesWithDeferredAnimations() {
+        AnimationManager manager = new AnimationManager();
+        List<String> trace = new ArrayList<>();
+        manager.newAnimation().repeatForever(() -> {
+            trace.add("slow");
+            long end = System.nanoTime() + 2_000_000;
+            while (System.nanoTime() < end) {
+                Thread.yield();
+            }
+        });
+        manager.newAnimation().repeatForever(() -> trace.add("a"));
+        manager.newAnimation().repeatForever(() -> trace.add("b"));
+        manager.tick();
+        trace.clear();
+
+        assertEquals(2, manager.tickBudgeted(1_000_000));
+        assertEquals(Arrays.asList("slow"), trace);
+        trace.clear();
+
+        assertEquals(0, manager.tickBudgeted(1_000_000));
+        assertEquals(Arrays.asList("a", "a", "b", "b", "slow"), trace);
+    }
+
+    @Test
+    public void budgetedTickKeepsOrderWhenAnimationFinishes() {
+        AnimationManager manager = new AnimationManager();
+        List<String> trace = new ArrayList<>();
+        AtomicReference<Animation> finishing = new AtomicReference<>();
+        AtomicBoolean finish = new AtomicBoolean();
+        manager.newAnimation().repeatForever(() -> trace.add("a"));
+        finishing.set(manager.newAnimation().repeatForever(() -> {
+            if (finish.get()) {
+                finishing.get().stop();
+            }
+        }));
+        manager.newAnimation().repeatForever(() -> {
+            trace.add("slow");
+            long end = System.nanoTime() + 2_000_000;
+            while (System.nanoTime() < end) {
+                Thread.yield();
+            }
+        });
+        manager.newAnimation().repeatForever(() -> trace.add("b"));
+        manager.newAnimation().repeatForever(() -> trace.add("c"));
+        manager.tick();
+        trace.clear();
+        finish.set(true);
+
+        assertEquals(2, manager.tickBudgeted(1_000_000));
+        assertEquals(Arrays.asList("a", "slow"), trace);
+        assertEquals(4, manager.activeAnimations());
+        trace.clear();
+
+        // Continues with the deferred animations in their order, catching up on the missed tick
+        assertEquals(0, manager.tickBudgeted(1_000_000_000));
+        assertEquals(Arrays.asList("b", "b", "c", "c", "a", "slow"), trace);
+    }
+
+    @Test
+    public void changedPriorityIsApplied() {
+        AnimationManager manager = new AnimationManager();
+        AtomicInteger counter = new AtomicInteger();
+        Animation animation = manager.newAnimation().priority(AnimationPriority.LOW).repeatForever(counter::incrementAndGet);
+        manager.tick();
+        animation.priority(AnimationPriority.HIGH);
+        manager.tick();
+        assertEquals(2, counter.get());
+
+        assertEquals(0, manager.tickBudgeted(1));
+        assertEquals(3, counter.get());
+    }
+
+    @Test
+    public void tickDivisorKeepsDuration() {
+        AnimationManager manager = new AnimationManager();
+        AtomicInteger tick = new AtomicInteger();
+        List<Integer> ticks = new ArrayList<>();
+        List<Float> values = new ArrayList<>();
+        manager.newAnimation().tickDivisor(2).linearEaseFunction(0, 1, 4, 1, value -> {
+            ticks.add(tick.get());
+            values.add(value);
+        }).sleep(1);
+        for (int i = 0; i < 4; i++) {
+            tick.incrementAndGet();
+            manager.tick();
+        }
+
+        // Ticked every 2nd tick, only the latest of both elapsed steps is emitted
+        assertEquals(Arrays.asList(0.25f, 0.75f), values);
+        assertEquals(Arrays.asList(2, 4), ticks);
+    }
+
+    @Test
+    public void throttledEaseCollapsesElapsedSteps() {
+        AnimationManager manager = new AnimationManager();
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger compiledCalls = new AtomicInteger();
+        List<Float> values = new ArrayList<>();
+        manager.newAnimation().tickDivisor(2).linearEaseFunction(0, 1, 8, 1, value -> {
+            calls.incrementAndGet();
+            values.add(value);
+        }).sleep(1);
+        manager.newAnimation(manager.of().linearEaseFunction(0, 1, 8, 1, value -> compiledCalls.incrementAndGet()).sleep(1).compile()).tickDivisor(2);
+        for (int i = 0; i < 8; i++) {
+            manager.tick();
+        }
+
+        // One call per due tick, ending with the last step
+        assertEquals(4, calls.get());
+        assertEquals(4, compiledCalls.get());
+        assertEquals(0.875f, (float) values.get(values.size() - 1));
+
+        AnimationManager catchUp = new AnimationManager();
+        AtomicInteger catchUpCalls = new AtomicInteger();
+        catchUp.newAnimation().tickDivisor(2).linearEaseFunction(0, 1, 8, 1, value -> catchUpCalls.incrementAndGet()).sleep(1);
+        // Catching up replays every tick
+        catchUp.tick(8);
+        assertEquals(8, catchUpCalls.get());
+    }
+
+    @Test
+    public void tickDivisorSpreadsAnimationsOverTicks() {
+        AnimationManager manager = new AnimationManager().priorityDivisor(AnimationPriority.LOW, 4);
+        Set<Integer> ticked = new HashSet<>();
+        AtomicInteger low = new AtomicInteger();
+        AtomicInteger normal = new AtomicInteger();
+        for (int i = 0; i < 8; i++) {
+            int id = i;
+            manager.newAnimation().priority(AnimationPriority.LOW).repeatForever(() -> {
+                ticked.add(id);
+                low.incrementAndGet();
+            });
+        }
+        manager.newAnimation().repeatForever(normal::incrementAndGet);
+        // The low priority animations are moved into the throttled buckets after their first tick
+        manager.tick();
+
+        for (int i = 0; i < 4; i++) {
+            ticked.clear();
+            manager.tick();
+            assertEquals(2, ticked.size());
+        }
+        // Each phase is advanced by all ticks since its previous tick
+        assertEquals(8 + 2 * (1 + 2 + 3 + 4), low.get());
+        assertEquals(5, normal.get());
+    }
+
+    @Test
+    public void throttledAnimationWakesFromTimingWheel() {
+        AnimationManager manager = new AnimationManager().timingWheel(true);
+        AtomicInteger counter = new AtomicInteger();
+        manager.newAnimation().tickDivisor(3).sleep(10).then(counter::incrementAndGet).sleep(1);
+        manager.tick(10);
+        assertEquals(0, counter.get());
+
+        manager.tick(4);
+        assertEquals(1, counter.get());
+        manager.tick(10);
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void awaitingAnimationIsParkedUntilNotified() {
+        AnimationManager manager = new AnimationManager();
+        AtomicReference<AwaitNotifyAnimationFrame.AwaitNotifyListener> listener = new AtomicReference<>();
+        AtomicInteger counter = new AtomicInteger();
+        manager.newAnimation().awaitNotification(listener::set).then(counter::incrementAndGet).sleep(1);
+        manager.newAnimation(manager.of().awaitNotification(ignored -> {
+        }).then(counter::incrementAndGet).sleep(1).compile());
+        for (int i = 0; i < 5; i++) {
+            manager.tick();
+        }
+        assertEquals(0, manager.activeAnimations());
+
+        listener.get().notifyAnimation();
+        manager.tick();
+        manager.tick();
+        assertEquals(1, counter.get());
+        assertEquals(1, manager.activeAnimations());
+    }
+
+    @Test
+    public void joiningAnimationIsWokenByCompletion() {
+        AnimationManager manager = new AnimationManager().metrics(1);
+        AtomicInteger counter = new AtomicInteger();
+        Animation first = manager.newAnimation().sleep(3).finish();
+        Animation second = manager.newAnimation().sleep(5).finish();
+        manager.newAnimation().join(first, second).then(counter::incrementAndGet).sleep(1);
+        manager.tick();
+        manager.tick();
+        assertEquals(2, manager.activeAnimations());
+        assertEquals(1, manager.getMetrics().getSleepingAnimations());
+
+        for (int i = 0; i < 5; i++) {
+            manager.tick();
+        }
+        assertTrue(second.isFinished());
+        assertEquals(1, counter.get());
+        assertEquals(0, manager.getMetrics().getSleepingAnimations());
+    }
+
+    @Test
+    public void stoppedAwaitingAnimationIsNotWoken() {
+        AnimationManager manager = new AnimationManager();
+        AtomicReference<AwaitNotifyAnimationFrame.AwaitNotifyListener> listener = new AtomicReference<>();
+        AtomicInteger counter = new AtomicInteger();
+        Animation animation = manager.newAnimation().awaitNotification(listener::set).then(counter::incrementAndGet).sleep(1);
+        manager.tick();
+        manager.tick();
+        animation.stop();
+        manager.tick();
+
+        listener.get().notifyAnimation();
+        manager.tick();
+        manager.tick();
+        assertEquals(0, counter.get());
+        assertEquals(0, manager.activeAnimations());
+    }
+}
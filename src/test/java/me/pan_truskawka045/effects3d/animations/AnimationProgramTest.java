@@ -0,0 +1,241 @@
+package me.pan_truskawka045.effects3d.animations;
+
+import me.pan_truskawka045.effects3d.animations.frames.AwaitNotifyAnimationFrame;
+import me.pan_truskawka045.effects3d.animations.values.EaseValue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnimationProgramTest {
+
+    private AnimationManager manager;
+
+    @BeforeEach
+    public void setUp() {
+        manager = new AnimationManager();
+    }
+
+    private static void build(Animation animation, List<String> trace) {
+        AtomicInteger whileCounter = new AtomicInteger();
+        animation
+                .then(() -> trace.add("start"))
+                .sleep(3)
+                .repeat(3, 2, () -> trace.add("repeat"))
+                .linearEaseFunction(0, 10, 4, 2, value -> trace.add("ease " + value))
+                .untilValue(0, 1, 0.4f, value -> trace.add("value " + value))
+                .easeFunctions(3, 1, values -> trace.add("multi " + Arrays.toString(values)), EaseValue.linear(0, 3), EaseValue.easeIn(1, 0))
+                .forEach(Arrays.asList("a", "b"), element -> trace.add("each " + element))
+                .runWhile(1, () -> trace.add("while"), ignored -> whileCounter.incrementAndGet() > 3)
+                .continueIf(ignored -> true)
+                .then(() -> trace.add("end"))
+                .sleep(1);
+    }
+
+    @Test
+    public void compiledAnimationBehavesLikeInterpretedAnimation() {
+        List<String> interpretedTrace = new ArrayList<>();
+        Animation interpreted = manager.newAnimation();
+        build(interpreted, interpretedTrace);
+
+        List<String> compiledTrace = new ArrayList<>();
+        Animation source = manager.of();
+        build(source, compiledTrace);
+        Animation compiled = manager.newAnimation(source.compile());
+
+        // Both animations are ticked by the same manager, so their traces are collected separately
+        List<String> expected = new ArrayList<>();
+        List<String> actual = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            manager.tick();
+            expected.add(i + ": " + interpretedTrace);
+            actual.add(i + ": " + compiledTrace);
+            interpretedTrace.clear();
+            compiledTrace.clear();
+        }
+
+        assertEquals(expected, actual);
+        assertTrue(compiled.isFinished());
+    }
+
+    @Test
+    public void programIsSharedByManyInstances() {
+        AtomicInteger counter = new AtomicInteger();
+        AnimationProgram program = manager.of()
+                .sleep(2)
+                .repeat(2, counter::incrementAndGet)
+                .compile();
+
+        for (int i = 0; i < 100; i++) {
+            manager.newAnimation(program);
+        }
+        for (int i = 0; i < 10; i++) {
+            manager.tick();
+        }
+
+        assertEquals(200, counter.get());
+        assertEquals(2, program.getInstructions());
+    }
+
+    @Test
+    public void bufferedEaseInstancesWriteIntoOwnArrays() {
+        float[] buffer = new float[3];
+        List<float[]> arrays = new ArrayList<>();
+        AnimationProgram program = manager.of()
+                .easeFunctions(4, 1, buffer, arrays::add, EaseValue.linear(0, 4))
+                .sleep(1)
+                .compile();
+
+        manager.newAnimation(program);
+        manager.tick();
+        manager.newAnimation(program);
+        manager.tick();
+
+        // The first instance took two steps, the second one only one
+        assertEquals(3, arrays.size());
+        assertSame(arrays.get(0), arrays.get(1));
+        assertNotSame(arrays.get(1), arrays.get(2));
+        assertNotSame(buffer, arrays.get(0));
+        assertNotSame(buffer, arrays.get(2));
+        assertEquals(1f, arrays.get(1)[0]);
+        assertEquals(0f, arrays.get(2)[0]);
+        assertArrayEquals(new float[3], buffer);
+    }
+
+    @Test
+    public void loopedProgramRestarts() {
+        AtomicInteger counter = new AtomicInteger();
+        Animation animation = manager.newAnimation(manager.of()
+                .then(counter::incrementAndGet)
+                .sleep(1)
+                .looped()
+                .compile());
+
+        for (int i = 0; i < 10; i++) {
+            manager.tick();
+        }
+
+        assertEquals(5, counter.get());
+        assertFalse(animation.isFinished());
+    }
+
+    @Test
+    public void finishStopsTheRunningInstanceOnly() {
+        AtomicInteger counter = new AtomicInteger();
+        AnimationProgram program = manager.of()
+                .then(counter::incrementAndGet)
+                .finish()
+                .then(counter::incrementAndGet)
+                .compile();
+
+        Animation first = manager.newAnimation(program);
+        Animation second = manager.newAnimation(program);
+        for (int i = 0; i < 5; i++) {
+            manager.tick();
+        }
+
+        assertEquals(2, counter.get());
+        assertTrue(first.isFinished());
+        assertTrue(second.isFinished());
+    }
+
+    @Test
+    public void parallelAnimationsAreCompiledAndJoined() {
+        List<String> trace = new ArrayList<>();
+        AnimationProgram program = manager.of()
+                .runInParallel("child", manager.of().sleep(3).then(() -> trace.add("child")))
+                .join("child")
+                .then(() -> trace.add("parent"))
+                .compile();
+
+        manager.newAnimation(program);
+        for (int i = 0; i < 10; i++) {
+            manager.tick();
+        }
+
+        assertEquals(Arrays.asList("child", "parent"), trace);
+    }
+
+    @Test
+    public void nestedAnimationIsInlined() {
+        List<String> trace = new ArrayList<>();
+        Animation nested = manager.of().then(() -> trace.add("nested")).sleep(1);
+        AnimationProgram program = manager.of()
+                .then(() -> trace.add("first"))
+                .then(nested)
+                .then(() -> trace.add("last"))
+                .compile();
+
+        manager.newAnimation(program);
+        for (int i = 0; i < 10; i++) {
+            manager.tick();
+        }
+
+        assertEquals(Arrays.asList("first", "nested", "last"), trace);
+        assertEquals(4, program.getInstructions());
+    }
+
+    @Test
+    public void eachInstanceIsNotifiedSeparately() {
+        List<AwaitNotifyAnimationFrame.AwaitNotifyListener> listeners = new ArrayList<>();
+        AtomicInteger counter = new AtomicInteger();
+        AnimationProgram program = manager.of()
+                .awaitNotification(listeners::add)
+                .then(counter::incrementAndGet)
+                .compile();
+
+        manager.newAnimation(program);
+        manager.newAnimation(program);
+        manager.tick();
+        listeners.get(0).notifyAnimation();
+        manager.tick();
+        manager.tick();
+
+        assertEquals(2, listeners.size());
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void compiledSleepIsParkedByTimingWheel() {
+        AtomicInteger counter = new AtomicInteger();
+        manager.timingWheel(true);
+        manager.newAnimation(manager.of().sleep(100).then(counter::incrementAndGet).compile());
+
+        for (int i = 0; i < 100; i++) {
+            manager.tick();
+        }
+        assertEquals(0, counter.get());
+        manager.tick();
+
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void compileThrowsExceptionForFramesReferringToRunningAnimations() {
+        Animation other = manager.newAnimation();
+
+        assertThrows(IllegalStateException.class, () -> manager.of().waitForCompletion(other).compile());
+        assertThrows(IllegalStateException.class, () -> manager.of().join(other).compile());
+    }
+
+    @Test
+    public void compileThrowsExceptionForStartedAnimation() {
+        Animation animation = manager.newAnimation().sleep(5).sleep(5);
+        manager.tick();
+        manager.tick();
+
+        assertThrows(IllegalStateException.class, animation::compile);
+    }
+
+    @Test
+    public void compileThrowsExceptionForNestedFinish() {
+        Animation nested = manager.of().finish();
+
+        assertThrows(IllegalStateException.class, () -> manager.of().then(nested).compile());
+    }
+}
@@ -0,0 +1,99 @@
+package me.pan_truskawka045.effects3d.animations;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnimationTemplateTest {
+
+    private AnimationManager manager;
+
+    @BeforeEach
+    public void setUp() {
+        manager = new AnimationManager();
+    }
+
+    @Test
+    public void eachInstanceReceivesItsContext() {
+        List<String> trace = new ArrayList<>();
+        AnimationTemplate<String> template = AnimationTemplate.<String>builder()
+                .then(name -> trace.add("start " + name))
+                .sleep(2)
+                .repeat(2, 1, name -> trace.add("repeat " + name))
+                .build();
+
+        Animation first = manager.spawn(template, "a");
+        Animation second = manager.spawn(template, "b");
+        for (int i = 0; i < 10; i++) {
+            manager.tick();
+        }
+
+        assertEquals(Arrays.asList("start a", "start b", "repeat a", "repeat b", "repeat a", "repeat b"), trace);
+        assertEquals("a", first.getContext());
+        assertEquals("b", second.getContext());
+    }
+
+    @Test
+    public void easedValuesAreCombinedWithContext() {
+        List<Float> values = Collections.synchronizedList(new ArrayList<>());
+        AnimationTemplate<float[]> template = AnimationTemplate.<float[]>builder()
+                .linearEaseFunction(0, 1, 4, 1, (offset, value) -> values.add(offset[0] + value))
+                .build();
+
+        manager.spawn(template, new float[]{10});
+        for (int i = 0; i < 6; i++) {
+            manager.tick();
+        }
+
+        assertEquals(Arrays.asList(10f, 10.25f, 10.5f, 10.75f), values);
+    }
+
+    @Test
+    public void conditionsAreTestedAgainstContext() {
+        AtomicInteger counter = new AtomicInteger();
+        AnimationTemplate<Boolean> template = AnimationTemplate.<Boolean>builder()
+                .continueIf(Boolean::booleanValue)
+                .then(ignored -> counter.incrementAndGet())
+                .build();
+
+        Animation stopped = manager.spawn(template, false);
+        manager.spawn(template, true);
+        for (int i = 0; i < 5; i++) {
+            manager.tick();
+        }
+
+        assertEquals(1, counter.get());
+        assertTrue(stopped.isFinished());
+    }
+
+    @Test
+    public void repeatedAnimationHasSeparateState() {
+        AtomicInteger counter = new AtomicInteger();
+        Animation animation = manager.of().sleep(2).then(counter::incrementAndGet);
+        AnimationTemplate<Void> template = AnimationTemplate.<Void>builder()
+                .repeatAnimation(3, animation)
+                .build();
+
+        manager.spawn(template, null);
+        for (int i = 0; i < 10; i++) {
+            manager.tick();
+        }
+
+        assertEquals(3, counter.get());
+        assertEquals(6, template.getProgram().getInstructions());
+    }
+
+    @Test
+    public void templateCannotReferToAnotherAnimation() {
+        Animation animation = manager.of().finish();
+
+        assertThrows(IllegalStateException.class, () -> AnimationTemplate.builder().then(animation));
+    }
+}
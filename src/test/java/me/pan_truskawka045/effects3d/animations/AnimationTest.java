@@ -1,13 +1,20 @@
 package me.pan_truskawka045.effects3d.animations;
 
 import me.pan_truskawka045.effects3d.animations.frames.AwaitNotifyAnimationFrame;
+import me.pan_truskawka045.effects3d.animations.values.EaseValue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -115,9 +122,7 @@ public class AnimationTest {
         manager.newAnimation().finish();
         manager.tick();
 
-        Field animationsField = manager.getClass().getDeclaredField("animations");
-        animationsField.setAccessible(true);
-        assertEquals(0, ((java.util.List<?>) animationsField.get(manager)).size());
+        assertEquals(0, manager.activeAnimations());
     }
 
     @Test
@@ -128,9 +133,7 @@ public class AnimationTest {
 
         manager.tick();
 
-        Field animationsField = AnimationManager.class.getDeclaredField("animations");
-        animationsField.setAccessible(true);
-        assertTrue(((Collection<?>) animationsField.get(manager)).isEmpty());
+        assertEquals(0, manager.activeAnimations());
 
         Field animationsToRemoveField = AnimationManager.class.getDeclaredField("animationsToRemove");
         animationsToRemoveField.setAccessible(true);
@@ -196,4 +199,163 @@ public class AnimationTest {
         manager.tick();
         assertFalse(executed.get());
     }
+
+    @Test
+    public void easeFunctionPassesPrimitiveValuesToFloatConsumer() {
+        float[] values = new float[3];
+        int[] calls = new int[1];
+
+        manager.newAnimation()
+                .linearEaseFunction(0, 30, 3, value -> values[calls[0]++] = value);
+
+        for (int i = 0; i < 5; i++) {
+            manager.tick();
+        }
+
+        assertEquals(3, calls[0]);
+        assertArrayEquals(new float[]{0, 10, 20}, values);
+    }
+
+    @Test
+    public void untilValueAcceptsBoxedConsumer() {
+        List<Float> values = new ArrayList<>();
+        Consumer<Float> consumer = values::add;
+
+        manager.newAnimation()
+                .untilValue(0, 2, 1, consumer);
+
+        for (int i = 0; i < 4; i++) {
+            manager.tick();
+        }
+
+        assertEquals(Arrays.asList(1f, 2f), values);
+    }
+
+    @Test
+    public void reusableEaseFunctionsPassesTheSameArrayOnEveryStep() {
+        List<float[]> arrays = new ArrayList<>();
+        List<Float> values = new ArrayList<>();
+
+        manager.newAnimation()
+                .reusableEaseFunctions(3, 1, array -> {
+                    arrays.add(array);
+                    values.add(array[0]);
+                }, EaseValue.linear(0, 30));
+
+        for (int i = 0; i < 5; i++) {
+            manager.tick();
+        }
+
+        assertEquals(Arrays.asList(0f, 10f, 20f), values);
+        assertSame(arrays.get(0), arrays.get(1));
+        assertSame(arrays.get(1), arrays.get(2));
+    }
+
+    @Test
+    public void easeFunctionsWritesIntoSuppliedBuffer() {
+        float[] buffer = new float[3];
+
+        manager.newAnimation()
+                .easeFunctions(2, 1, buffer, array -> assertSame(buffer, array), EaseValue.linear(0, 10), EaseValue.linear(10, 0));
+
+        manager.tick();
+        manager.tick();
+
+        assertEquals(5f, buffer[0]);
+        assertEquals(5f, buffer[1]);
+    }
+
+    @Test
+    public void easeFunctionsThrowsExceptionWhenBufferIsTooShort() {
+        assertThrows(IllegalArgumentException.class, () -> manager.newAnimation()
+                .easeFunctions(2, 1, new float[1], array -> {
+                }, EaseValue.linear(0, 10), EaseValue.linear(10, 0)));
+    }
+
+    @Test
+    public void manyParallelAnimationsAreJoinedByName() {
+        List<String> trace = new ArrayList<>();
+        Animation animation = manager.newAnimation();
+        String[] names = new String[12];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = "child" + i;
+            animation.runInParallel(names[i], manager.of().sleep(i + 1).finish());
+        }
+        animation.join(names).then(() -> trace.add("joined")).sleep(1);
+
+        for (int i = 0; i < 30; i++) {
+            manager.tick();
+        }
+
+        assertEquals(Arrays.asList("joined"), trace);
+        assertEquals(12, animation.getParallelAnimations().size());
+        assertSame(animation.getParallelAnimation("child11"), animation.getParallelAnimations().get("child11"));
+        assertNull(animation.getParallelAnimation("child12"));
+    }
+
+    @Test
+    public void parallelAnimationsViewIsModifiable() {
+        Animation animation = manager.of();
+        Animation first = manager.of();
+        Animation second = manager.of();
+
+        assertTrue(animation.getParallelAnimations().isEmpty());
+        animation.getParallelAnimations().put("a", first);
+        assertSame(first, animation.getParallelAnimations().put("a", second));
+        animation.putParallelAnimation("b", first);
+
+        assertEquals(2, animation.getParallelAnimations().size());
+        assertEquals(Arrays.asList("a", "b"), new ArrayList<>(animation.getParallelAnimations().keySet()));
+        assertSame(second, animation.getParallelAnimation("a"));
+        animation.getParallelAnimations().clear();
+        assertNull(animation.getParallelAnimation("a"));
+    }
+
+    @Test
+    public void parallelAnimationsCanBeRemovedThroughView() {
+        Animation animation = manager.of();
+        Animation replacement = manager.of();
+        for (int i = 0; i < 12; i++) {
+            animation.putParallelAnimation("child" + i, manager.of());
+        }
+        Map<String, Animation> view = animation.getParallelAnimations();
+
+        assertNotNull(view.remove("child0"));
+        assertNull(view.remove("child0"));
+        view.keySet().remove("child5");
+        view.values().removeIf(child -> child == animation.getParallelAnimation("child7"));
+        Iterator<Map.Entry<String, Animation>> iterator = view.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Animation> entry = iterator.next();
+            if (entry.getKey().equals("child11")) {
+                iterator.remove();
+            } else if (entry.getKey().equals("child10")) {
+                entry.setValue(replacement);
+            }
+        }
+
+        assertEquals(Arrays.asList("child1", "child2", "child3", "child4", "child6", "child8", "child9", "child10"),
+                new ArrayList<>(view.keySet()));
+        assertSame(replacement, animation.getParallelAnimation("child10"));
+        assertNull(animation.getParallelAnimation("child11"));
+        assertNotNull(animation.getParallelAnimation("child9"));
+    }
+
+    @Test
+    public void completionCallbacksRunOnce() {
+        List<String> trace = new ArrayList<>();
+        Animation animation = manager.of().then(() -> trace.add("run")).finish();
+        animation.onCompletion(() -> trace.add("completed"));
+        animation.tick();
+        animation.tick();
+        animation.stop();
+        animation.onCompletion(() -> trace.add("late"));
+
+        assertEquals(Arrays.asList("run", "completed", "late"), trace);
+
+        Animation stopped = manager.of().sleep(5);
+        stopped.onCompletion(() -> trace.add("stopped"));
+        stopped.stop();
+        assertEquals("stopped", trace.get(trace.size() - 1));
+    }
 }
@@ -2,8 +2,6 @@ package me.pan_truskawka045.effects3d.animations;
 
 import org.junit.jupiter.api.Test;
 
-import java.lang.reflect.Field;
-import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -31,13 +29,7 @@ public class BasicRunnableTest {
         Animation animation = manager.newAnimation().finish();
         manager.tick();
         manager.tick();
-        try {
-            Field animations = manager.getClass().getDeclaredField("animations");
-            animations.setAccessible(true);
-            assertEquals(0, ((List<?>) animations.get(manager)).size());
-
-        } catch (Exception ignored) {
-        }
+        assertEquals(0, manager.activeAnimations());
     }
 
 }
@@ -0,0 +1,125 @@
+package me.pan_truskawka045.effects3d.animations;
+
+import me.pan_truskawka045.effects3d.animations.frames.MultipleEaseFunctionsFrame;
+import me.pan_truskawka045.effects3d.animations.values.EaseValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EaseFunctionsTest {
+
+    @Test
+    public void tabulatedFunctionStaysWithinReportedMaxError() {
+        TabulatedEaseFunction tabulated = EaseFunctions.tabulate(EaseFunctions.SINE_IN, 64);
+
+        for (int i = 0; i <= 1000; i++) {
+            float f = i / 1000f;
+            assertEquals(EaseFunctions.SINE_IN.ease(f), tabulated.ease(f), tabulated.getMaxError() + 1e-6f);
+        }
+        assertTrue(tabulated.getMaxError() < 1e-3f);
+    }
+
+    @Test
+    public void tabulatedFunctionIsExactAtSamplesAndEnds() {
+        TabulatedEaseFunction tabulated = EaseFunctions.tabulate(EaseFunctions.CUBIC_OUT, 8);
+
+        assertEquals(EaseFunctions.CUBIC_OUT.ease(0), tabulated.ease(0));
+        assertEquals(EaseFunctions.CUBIC_OUT.ease(0.5f), tabulated.ease(0.5f));
+        assertEquals(EaseFunctions.CUBIC_OUT.ease(1), tabulated.ease(1));
+    }
+
+    @Test
+    public void tabulatedFunctionPassesProgressOutsideOfRangeToSourceFunction() {
+        TabulatedEaseFunction tabulated = EaseFunctions.tabulate(EaseFunctions.EASE_IN, 4);
+
+        assertEquals(4f, tabulated.ease(2));
+        assertEquals(1f, tabulated.ease(-1));
+    }
+
+    @Test
+    public void higherResolutionHasLowerError() {
+        float lowResolutionError = EaseFunctions.tabulate(EaseFunctions.SINE_OUT, 8).getMaxError();
+        float highResolutionError = EaseFunctions.tabulate(EaseFunctions.SINE_OUT, 256).getMaxError();
+
+        assertTrue(highResolutionError < lowResolutionError);
+    }
+
+    @Test
+    public void tabulateThrowsExceptionWhenResolutionIsNotPositive() {
+        assertThrows(IllegalArgumentException.class, () -> EaseFunctions.tabulate(EaseFunctions.LINEAR, 0));
+    }
+
+    @Test
+    public void tabulatedEaseValueMatchesSourceEaseValue() {
+        EaseValue value = EaseValue.easeIn(10, 20);
+        EaseValue tabulated = value.tabulated(128);
+
+        assertEquals(value.getValue(0.3f), tabulated.getValue(0.3f), 0.001f);
+    }
+
+    @Test
+    public void easeIntoMatchesEaseForBuiltInFunctions() {
+        EaseFunction[] functions = {EaseFunctions.LINEAR, EaseFunctions.EASE_IN, EaseFunctions.EASE_OUT, EaseFunctions.CUBIC_IN,
+                EaseFunctions.CUBIC_OUT, EaseFunctions.SINE_IN, EaseFunctions.SINE_OUT, EaseFunctions.tabulate(EaseFunctions.SINE_IN, 16)};
+        float[] progress = new float[21];
+        for (int i = 0; i < progress.length; i++) {
+            progress[i] = i / 20f;
+        }
+
+        for (EaseFunction function : functions) {
+            float[] out = new float[progress.length];
+            function.easeInto(progress, out, 2, 19);
+            for (int i = 2; i < 19; i++) {
+                assertEquals(function.ease(progress[i]), out[i], 1e-6f);
+            }
+            assertEquals(0f, out[19]);
+        }
+    }
+
+    @Test
+    public void defaultEaseIntoUsesEase() {
+        EaseFunction function = f -> f + 1;
+        float[] values = {0f, 0.5f, 1f};
+
+        function.easeInto(values, values, 0, 3);
+
+        assertArrayEquals(new float[]{1f, 1.5f, 2f}, values);
+    }
+
+    @Test
+    public void easeIntoThrowsExceptionWhenRangeIsOutOfBounds() {
+        assertThrows(IndexOutOfBoundsException.class, () -> EaseFunctions.EASE_IN.easeInto(new float[4], new float[2], 0, 4));
+    }
+
+    @Test
+    public void easeValueTimelineMatchesStepValues() {
+        EaseValue value = EaseValue.easeOut(5, -5);
+
+        float[] timeline = value.timeline(10);
+
+        for (int step = 0; step < 10; step++) {
+            assertEquals(value.getValue(step / 10f), timeline[step], 1e-6f);
+        }
+    }
+
+    @Test
+    public void frameTimelineMatchesTickedValues() {
+        List<float[]> ticked = new ArrayList<>();
+        MultipleEaseFunctionsFrame frame = new MultipleEaseFunctionsFrame(
+                new EaseValue[]{EaseValue.linear(0, 1), EaseValue.easeIn(2, 4)}, ticked::add, 4, 1);
+
+        float[][] timeline = frame.timeline();
+        frame.reset();
+        while (!frame.isFinished()) {
+            frame.tick();
+        }
+
+        assertEquals(4, timeline.length);
+        for (int step = 0; step < 4; step++) {
+            assertArrayEquals(ticked.get(step), timeline[step], 1e-6f);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package me.pan_truskawka045.effects3d.points;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PointBufferTest {
+
+    @Test
+    public void addGrowsBufferBeyondInitialCapacity() {
+        PointBuffer buffer = new PointBuffer(1);
+
+        for (int i = 0; i < 100; i++) {
+            buffer.add(i, i * 2, i * 3);
+        }
+
+        assertEquals(100, buffer.getSize());
+        assertEquals(99.0f, buffer.getX(99));
+        assertEquals(198.0f, buffer.getY(99));
+        assertEquals(297.0f, buffer.getZ(99));
+    }
+
+    @Test
+    public void viewWritesThroughToBuffer() {
+        PointBuffer buffer = new PointBuffer().add(1, 2, 3);
+
+        Point view = buffer.get(0);
+        view.shift(1, 1, 1);
+        view.setZ(10);
+
+        assertEquals(2.0f, buffer.getX(0));
+        assertEquals(3.0f, buffer.getY(0));
+        assertEquals(10.0f, buffer.getZ(0));
+    }
+
+    @Test
+    public void cloneOfViewIsDetached() {
+        PointBuffer buffer = new PointBuffer().add(1, 2, 3);
+
+        Point copy = buffer.get(0).clone();
+        copy.shift(5, 5, 5);
+
+        assertFalse(copy instanceof PointView);
+        assertEquals(1.0f, buffer.getX(0));
+    }
+
+    @Test
+    public void rotationsOfBufferMatchRotationsOfPoints() {
+        PointBuffer buffer = new PointBuffer();
+        Point point = new Point(1.5f, -2.0f, 3.25f);
+        buffer.add(point);
+
+        buffer.rotate(0.3f, -1.2f, 2.5f);
+        point.rotate(0.3f, -1.2f, 2.5f);
+
+        assertEquals(point.getX(), buffer.getX(0), 0.0001f);
+        assertEquals(point.getY(), buffer.getY(0), 0.0001f);
+        assertEquals(point.getZ(), buffer.getZ(0), 0.0001f);
+    }
+
+    @Test
+    public void viewRotationMatchesPointRotation() {
+        PointBuffer buffer = new PointBuffer().add(1, 0, 0);
+        Point point = new Point(1, 0, 0);
+
+        buffer.get(0).rotateZ((float) Math.PI / 2);
+        point.rotateZ((float) Math.PI / 2);
+
+        assertEquals(point.getX(), buffer.getX(0));
+        assertEquals(point.getY(), buffer.getY(0));
+    }
+
+    @Test
+    public void listViewAddsRemovesAndKeepsOrder() {
+        PointBuffer buffer = new PointBuffer();
+        List<Point> list = buffer.asList();
+
+        list.add(new Point(1, 1, 1));
+        list.add(new Point(3, 3, 3));
+        list.add(1, new Point(2, 2, 2));
+        Point removed = list.remove(0);
+
+        assertEquals(1.0f, removed.getX());
+        assertEquals(2, buffer.getSize());
+        assertEquals(2.0f, list.get(0).getX());
+        assertEquals(3.0f, list.get(1).getX());
+    }
+
+    @Test
+    public void addAllOfItselfDuplicatesPoints() {
+        PointBuffer buffer = new PointBuffer(2).add(1, 2, 3).add(4, 5, 6);
+
+        buffer.addAll(buffer);
+
+        assertEquals(4, buffer.getSize());
+        assertEquals(1.0f, buffer.getX(2));
+        assertEquals(6.0f, buffer.getZ(3));
+    }
+
+    @Test
+    public void accessOutsideOfSizeThrowsException() {
+        PointBuffer buffer = new PointBuffer(16).add(1, 2, 3);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.getX(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.get(-1));
+    }
+}
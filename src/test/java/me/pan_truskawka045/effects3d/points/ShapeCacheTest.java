@@ -0,0 +1,102 @@
+package me.pan_truskawka045.effects3d.points;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShapeCacheTest {
+
+    private ShapeCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        cache = new ShapeCache(2);
+    }
+
+    @Test
+    public void cachedCircleMatchesGeneratedOne() {
+        PointBuffer first = new PointBuffer();
+        PointBuffer second = new PointBuffer();
+
+        cache.drawCircle(new Point(1, 2, 3), 2, 0.3f, first);
+        // Same amount of points, so the unit circle is reused
+        cache.drawCircle(new Point(-4, 0, 7), 4, 0.6f, second);
+
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertExact(Space3DGraphics.drawCircle(new Point(1, 2, 3), 2, 0.3f), first.asList());
+        assertExact(Space3DGraphics.drawCircle(new Point(-4, 0, 7), 4, 0.6f), second.asList());
+    }
+
+    @Test
+    public void cachedLinesAndCubesMatchGeneratedOnes() {
+        Point point1 = new Point(1, 2, 3);
+        Point point2 = new Point(-4, 6, 2);
+        PointBuffer lines = new PointBuffer();
+        PointBuffer cubes = new PointBuffer();
+
+        for (int i = 0; i < 2; i++) {
+            cache.drawLine(point1, point2, 0.3f, lines.clear());
+            cache.drawCubeWireframes(point1, point2, 0.3f, cubes.clear());
+        }
+
+        assertEquals(2, cache.getMisses());
+        assertEquals(2, cache.getHits());
+        assertClose(Space3DGraphics.drawLine(point1, point2, 0.3f), lines.asList());
+        assertClose(Space3DGraphics.drawCubeWireframes(point1, point2, 0.3f), cubes.asList());
+    }
+
+    @Test
+    public void movedBezierCurveIsTranslated() {
+        Point[] controlPoints = {new Point(0, 0, 0), new Point(5, 10, 0), new Point(10, 0, 5)};
+        Point[] moved = {new Point(3, 1, 2), new Point(8, 11, 2), new Point(13, 1, 7)};
+        PointBuffer buffer = new PointBuffer();
+
+        cache.bezierCurve(20, buffer, controlPoints);
+        cache.bezierCurve(20, buffer.clear(), moved);
+
+        assertEquals(1, cache.getHits());
+        assertClose(Arrays.asList(Space3DGraphics.bezierCurve(20, moved)), buffer.asList());
+    }
+
+    @Test
+    public void leastRecentlyUsedShapeIsEvicted() {
+        PointSink sink = (x, y, z) -> {
+        };
+        Point center = new Point(0, 0, 0);
+
+        cache.drawCircle(center, 1, 0.5f, sink);
+        cache.drawCircle(center, 2, 0.5f, sink);
+        cache.drawCircle(center, 1, 0.5f, sink);
+        cache.drawCircle(center, 3, 0.5f, sink);
+        cache.drawCircle(center, 1, 0.5f, sink);
+        cache.drawCircle(center, 2, 0.5f, sink);
+
+        assertEquals(2, cache.getSize());
+        assertEquals(2, cache.getHits());
+        assertEquals(4, cache.getMisses());
+        assertEquals(0, cache.clear().getSize());
+    }
+
+    private static void assertExact(List<Point> expected, List<Point> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getX(), actual.get(i).getX());
+            assertEquals(expected.get(i).getY(), actual.get(i).getY());
+            assertEquals(expected.get(i).getZ(), actual.get(i).getZ());
+        }
+    }
+
+    private static void assertClose(List<Point> expected, List<Point> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getX(), actual.get(i).getX(), 1e-4f);
+            assertEquals(expected.get(i).getY(), actual.get(i).getY(), 1e-4f);
+            assertEquals(expected.get(i).getZ(), actual.get(i).getZ(), 1e-4f);
+        }
+    }
+}
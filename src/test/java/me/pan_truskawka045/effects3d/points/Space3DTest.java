@@ -3,6 +3,15 @@ package me.pan_truskawka045.effects3d.points;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class Space3DTest {
@@ -222,4 +231,213 @@ public class Space3DTest {
 
         assertTrue(totalCount > firstCircleCount);
     }
+
+    @Test
+    public void bufferBackedSpaceTransformsLikeListBackedSpace() {
+        Space3D bufferSpace = new Space3D(new PointBuffer());
+        space.drawCircle(new Point(1.0f, 2.0f, 3.0f), 4.0f, 0.5f);
+        bufferSpace.drawCircle(new Point(1.0f, 2.0f, 3.0f), 4.0f, 0.5f);
+
+        space.shiftAll(1.0f, -2.0f, 0.5f).scale(1.5f, 2.0f, 0.5f).rotateAll(0.4f, -0.3f, 1.1f).rotateAllY(0.7f);
+        bufferSpace.shiftAll(1.0f, -2.0f, 0.5f).scale(1.5f, 2.0f, 0.5f).rotateAll(0.4f, -0.3f, 1.1f).rotateAllY(0.7f);
+
+        assertEquals(space.getPoints().size(), bufferSpace.getPoints().size());
+        for (int i = 0; i < space.getPoints().size(); i++) {
+            Point expected = space.getPoints().get(i);
+            Point actual = bufferSpace.getPoints().get(i);
+            assertEquals(expected.getX(), actual.getX(), 0.0001f);
+            assertEquals(expected.getY(), actual.getY(), 0.0001f);
+            assertEquals(expected.getZ(), actual.getZ(), 0.0001f);
+        }
+    }
+
+    @Test
+    public void bufferBackedSpaceCopiesAddedPoints() {
+        PointBuffer buffer = new PointBuffer();
+        Space3D bufferSpace = new Space3D(buffer);
+        Point point = new Point(1.0f, 2.0f, 3.0f);
+
+        bufferSpace.addPoint(point);
+        point.shift(1.0f, 1.0f, 1.0f);
+
+        assertEquals(1, buffer.getSize());
+        assertEquals(1.0f, buffer.getX(0));
+        assertEquals(1, bufferSpace.allInDistance(new Point(1.0f, 2.0f, 3.0f), 0.1f).size());
+    }
+
+    @Test
+    public void spatialIndexGivesSameResultsAsScan() {
+        Random random = new Random(45);
+        Space3D indexed = new Space3D().spatialIndex(1.5f);
+        Space3D bufferIndexed = new Space3D(new PointBuffer()).spatialIndex(0.5f);
+        for (int i = 0; i < 2000; i++) {
+            float x = random.nextFloat() * 20 - 10;
+            float y = random.nextFloat() * 20 - 10;
+            float z = random.nextFloat() * 20 - 10;
+            space.addPoint(x, y, z);
+            indexed.addPoint(x, y, z);
+            bufferIndexed.addPoint(x, y, z);
+        }
+
+        for (int i = 0; i < 20; i++) {
+            Point first = new Point(random.nextFloat() * 24 - 12, random.nextFloat() * 24 - 12, random.nextFloat() * 24 - 12);
+            Point second = new Point(random.nextFloat() * 24 - 12, random.nextFloat() * 24 - 12, random.nextFloat() * 24 - 12);
+            float distance = random.nextFloat() * 8;
+            assertEquals(coordinates(space.allInRange(first, second)), coordinates(indexed.allInRange(first, second)));
+            assertEquals(coordinates(space.allInRange(first, second)), coordinates(bufferIndexed.allInRange(first, second)));
+            assertEquals(coordinates(space.allInDistance(first, distance)), coordinates(indexed.allInDistance(first, distance)));
+            assertEquals(coordinates(space.allInDistance(first, distance)), coordinates(bufferIndexed.allInDistance(first, distance)));
+        }
+    }
+
+    @Test
+    public void spatialIndexIsRebuiltAfterChanges() {
+        Space3D bufferIndexed = new Space3D(new PointBuffer()).spatialIndex(1);
+        space.spatialIndex(1);
+        space.addPoint(0, 0, 0);
+        bufferIndexed.addPoint(0, 0, 0);
+        assertEquals(1, space.allInDistance(new Point(0, 0, 0), 0.5f).size());
+        assertEquals(1, bufferIndexed.allInDistance(new Point(0, 0, 0), 0.5f).size());
+
+        space.shiftAll(5, 0, 0);
+        bufferIndexed.getPoints().get(0).setX(5);
+        assertEquals(0, space.allInDistance(new Point(0, 0, 0), 0.5f).size());
+        assertEquals(1, bufferIndexed.allInDistance(new Point(5, 0, 0), 0.5f).size());
+
+        space.getPoints().get(0).setX(0);
+        space.invalidateSpatialIndex();
+        assertEquals(1, space.allInRange(new Point(-1, -1, -1), new Point(1, 1, 1)).size());
+    }
+
+    @Test
+    public void spatialIndexDetectsSameSizeListEdits() {
+        space.spatialIndex(1);
+        space.addPoint(0, 0, 0).addPoint(10, 0, 0);
+        assertEquals(1, space.allInDistance(new Point(0, 0, 0), 0.5f).size());
+
+        space.getPoints().set(0, new Point(20, 0, 0));
+        assertEquals(0, space.allInDistance(new Point(0, 0, 0), 0.5f).size());
+        assertEquals(1, space.allInDistance(new Point(20, 0, 0), 0.5f).size());
+
+        space.getPoints().remove(1);
+        space.getPoints().add(new Point(0, 0, 0));
+        assertEquals(1, space.allInDistance(new Point(0, 0, 0), 0.5f).size());
+        assertEquals(0, space.allInDistance(new Point(10, 0, 0), 0.5f).size());
+
+        Collections.swap(space.getPoints(), 0, 1);
+        List<Point> inRange = space.allInRange(new Point(15, -1, -1), new Point(25, 1, 1));
+        assertEquals(1, inRange.size());
+        assertEquals(20, inRange.get(0).getX());
+    }
+
+    @Test
+    public void visitorsAndStreamsMatchListQueries() {
+        Random random = new Random(45);
+        Space3D bufferSpace = new Space3D(new PointBuffer());
+        for (int i = 0; i < 500; i++) {
+            float x = random.nextFloat() * 10;
+            float y = random.nextFloat() * 10;
+            float z = random.nextFloat() * 10;
+            space.addPoint(x, y, z);
+            bufferSpace.addPoint(x, y, z);
+        }
+        List<List<Float>> inRange = coordinates(space.allInRange(new Point(8, 2, 7), new Point(3, 6, 1)));
+        List<List<Float>> inDistance = coordinates(space.allInDistance(new Point(5, 5, 5), 3));
+
+        for (Space3D tested : Arrays.asList(space, bufferSpace)) {
+            List<List<Float>> visited = new ArrayList<>();
+            tested.forEachInRange(8, 2, 7, 3, 6, 1, (x, y, z) -> visited.add(Arrays.asList(x, y, z)));
+            assertEquals(inRange, visited);
+            visited.clear();
+            tested.forEachInDistance(5, 5, 5, 3, (x, y, z) -> visited.add(Arrays.asList(x, y, z)));
+            assertEquals(inDistance, visited);
+
+            assertEquals(inRange, coordinates(tested.streamInRange(8, 2, 7, 3, 6, 1).collect(Collectors.toList())));
+            assertEquals(inDistance, coordinates(tested.streamInDistance(5, 5, 5, 3).parallel().collect(Collectors.toList())));
+        }
+
+        List<List<Float>> visited = new ArrayList<>();
+        bufferSpace.spatialIndex(1).forEachInDistance(5, 5, 5, 3, (x, y, z) -> visited.add(Arrays.asList(x, y, z)));
+        assertEquals(inDistance.size(), visited.size());
+        assertEquals(new HashSet<>(inDistance), new HashSet<>(visited));
+    }
+
+    @Test
+    public void parallelTransformsMatchSequentialOnes() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Random random = new Random(45);
+            Space3D bufferSpace = new Space3D(new PointBuffer());
+            Space3D parallel = new Space3D().parallel(pool, 1000);
+            Space3D bufferParallel = new Space3D(new PointBuffer()).parallel(pool, 1000);
+            for (int i = 0; i < 50000; i++) {
+                float x = random.nextFloat() * 10;
+                float y = random.nextFloat() * 10;
+                float z = random.nextFloat() * 10;
+                space.addPoint(x, y, z);
+                bufferSpace.addPoint(x, y, z);
+                parallel.addPoint(x, y, z);
+                bufferParallel.addPoint(x, y, z);
+            }
+            Transform transform = new Transform().rotate(0.3f, 0.2f, 0.1f).scale(2);
+
+            for (Space3D tested : Arrays.asList(space, bufferSpace, parallel, bufferParallel)) {
+                tested.spatialIndex(1).allInDistance(new Point(5, 5, 5), 1);
+                tested.shiftAll(1, 2, 3).rotateAllX(0.5f).rotateAllY(0.4f).rotateAllZ(0.3f)
+                        .scaleX(2).scaleY(0.5f).scaleZ(3).scale(1.5f).scale(0.5f, 2, 1).transformAll(transform);
+            }
+
+            assertEquals(coordinates(space.getPoints()), coordinates(parallel.getPoints()));
+            assertEquals(coordinates(bufferSpace.getPoints()), coordinates(bufferParallel.getPoints()));
+            assertEquals(coordinates(space.allInDistance(new Point(5, 5, 5), 10)), coordinates(parallel.allInDistance(new Point(5, 5, 5), 10)));
+            assertEquals(coordinates(bufferSpace.allInDistance(new Point(5, 5, 5), 10)), coordinates(bufferParallel.allInDistance(new Point(5, 5, 5), 10)));
+            assertThrows(IllegalArgumentException.class, () -> bufferParallel.scale(Float.NaN));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void sinkGeneratorsWriteSamePointsAsLists() {
+        Point first = new Point(1, 2, 3);
+        Point second = new Point(-4, 6, 2);
+        List<List<Float>> expected = new ArrayList<>();
+        expected.addAll(coordinates(Space3DGraphics.drawLine(first, second, 0.3f)));
+        expected.addAll(coordinates(Space3DGraphics.drawCircle(first, 2, 0.3f)));
+        expected.addAll(coordinates(Space3DGraphics.drawQuadratic(first, second, 0.5f, 0.3f)));
+        expected.addAll(coordinates(Space3DGraphics.drawCubeWireframes(first, second, 0.3f)));
+
+        PointBuffer buffer = new PointBuffer(0);
+        List<List<Float>> accepted = new ArrayList<>();
+        int[] reserved = new int[1];
+        PointSink sink = new PointSink() {
+            @Override
+            public void accept(float x, float y, float z) {
+                accepted.add(Arrays.asList(x, y, z));
+            }
+
+            @Override
+            public void reserve(int amount) {
+                reserved[0] += amount;
+            }
+        };
+        for (PointSink tested : Arrays.asList(space, buffer, sink)) {
+            int count = Space3DGraphics.drawLine(first, second, 0.3f, tested)
+                    + Space3DGraphics.drawCircle(first, 2, 0.3f, tested)
+                    + Space3DGraphics.drawQuadratic(first, second, 0.5f, 0.3f, tested)
+                    + Space3DGraphics.drawCubeWireframes(first, second, 0.3f, tested);
+            assertEquals(expected.size(), count);
+        }
+
+        assertEquals(expected, coordinates(space.getPoints()));
+        assertEquals(expected, coordinates(buffer.asList()));
+        assertEquals(expected, accepted);
+        assertEquals(expected.size(), reserved[0]);
+    }
+
+    private static List<List<Float>> coordinates(List<Point> points) {
+        return points.stream()
+                .map(point -> Arrays.asList(point.getX(), point.getY(), point.getZ()))
+                .collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,87 @@
+package me.pan_truskawka045.effects3d.points;
+
+import me.pan_truskawka045.effects3d.vector.Vector;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransformTest {
+
+    private static void assertPointEquals(Point expected, Point actual) {
+        assertEquals(expected.getX(), actual.getX(), 0.0001f);
+        assertEquals(expected.getY(), actual.getY(), 0.0001f);
+        assertEquals(expected.getZ(), actual.getZ(), 0.0001f);
+    }
+
+    @Test
+    public void newTransformIsIdentity() {
+        Point point = new Point(1.5f, -2.0f, 3.0f);
+
+        new Transform().apply(point);
+
+        assertEquals(1.5f, point.getX());
+        assertEquals(-2.0f, point.getY());
+        assertEquals(3.0f, point.getZ());
+    }
+
+    @Test
+    public void rotateMatchesPointRotate() {
+        Point expected = new Point(1.5f, -2.0f, 3.25f);
+        Point actual = expected.clone();
+
+        expected.rotate(0.3f, -1.2f, 2.5f);
+        new Transform().rotate(0.3f, -1.2f, 2.5f).apply(actual);
+
+        assertPointEquals(expected, actual);
+    }
+
+    @Test
+    public void operationsAreAppliedInOrderOfComposition() {
+        Point expected = new Point(1.0f, 2.0f, 3.0f);
+        Point actual = expected.clone();
+
+        expected.shift(1.0f, 0.0f, 0.0f);
+        expected.rotateZ((float) Math.PI / 2);
+        expected.scale(2.0f, 1.0f, 0.5f);
+        new Transform().shift(1.0f, 0.0f, 0.0f).rotateZ((float) Math.PI / 2).scale(2.0f, 1.0f, 0.5f).apply(actual);
+
+        assertPointEquals(expected, actual);
+    }
+
+    @Test
+    public void thenAppendsTransform() {
+        Transform first = new Transform().rotateX(0.5f).shift(1.0f, 2.0f, 3.0f);
+        Transform second = new Transform().scale(2.0f).rotateY(-0.7f);
+        Point expected = new Point(-1.0f, 4.0f, 0.5f);
+        Point actual = expected.clone();
+
+        first.apply(expected);
+        second.apply(expected);
+        first.then(second).apply(actual);
+
+        assertPointEquals(expected, actual);
+    }
+
+    @Test
+    public void rotateAroundVectorMatchesPointRotateAroundVector() {
+        Vector axis = new Vector(1.0f, 2.0f, -0.5f);
+        Point expected = new Point(3.0f, -1.0f, 2.0f);
+        Point actual = expected.clone();
+
+        expected.rotateAroundVector(1.3f, axis);
+        new Transform().rotateAroundVector(1.3f, axis).apply(actual);
+
+        assertPointEquals(expected, actual);
+        assertFalse(axis.isNormalised());
+    }
+
+    @Test
+    public void rotateAroundVectorThrowsExceptionWhenVectorIsZero() {
+        assertThrows(IllegalArgumentException.class, () -> new Transform().rotateAroundVector(1.0f, new Vector(0, 0, 0)));
+    }
+
+    @Test
+    public void scaleThrowsExceptionWhenScaleIsNotFinite() {
+        assertThrows(IllegalArgumentException.class, () -> new Transform().scale(Float.NaN));
+    }
+}